@@ -0,0 +1,25 @@
+package me.igorson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BenchmarkRunner {
+
+    // Runs JMH with JSON results in jmh-result.json unless a result format or file is given explicitly.
+    public static void main(String[] args) throws Exception {
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.add("-rff");
+            arguments.add("jmh-result.json");
+        }
+
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,64 @@
+package me.igorson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FenBenchmark {
+
+    @Param({"opening", "middlegame", "endgame", "promotion", "castling"})
+    public String position;
+
+    private Game game;
+    private String fen;
+    private String fullFen;
+    private final Board board = new Board();
+    private final StringBuilder builder = new StringBuilder(128);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.create(position);
+        fen = Positions.placement(position);
+        fullFen = Positions.fen(position);
+    }
+
+    @Benchmark
+    public int[] loadBoardFromFen() {
+        game.loadBoardFromFen(fen);
+        return game.getSquares();
+    }
+
+    @Benchmark
+    public String generateFen() {
+        return Game.generateFen(game.getSquares());
+    }
+
+    @Benchmark
+    public long parseFen() {
+        Fen.parse(fullFen, board);
+        return board.key;
+    }
+
+    @Benchmark
+    public int writeFen() {
+        builder.setLength(0);
+        return Fen.write(game.getBoard(), builder).length();
+    }
+}
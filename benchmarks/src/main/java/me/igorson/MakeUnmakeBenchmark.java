@@ -0,0 +1,45 @@
+package me.igorson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MakeUnmakeBenchmark {
+
+    // Makes and unmakes every legal move of the position once.
+    @Benchmark
+    public long makeUnmakeAll(PositionState state) {
+
+        Game game = state.game;
+        long keys = 0;
+
+        for (int i = 0; i < state.moveCount; i++) {
+            game.makeMove(state.moves[i]);
+            keys ^= game.getHashKey();
+            game.undoMove();
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public int isKingChecked(PositionState state) {
+
+        int checked = 0;
+
+        for (Move move : state.legalMoves) {
+            if (state.game.isKingChecked(move)) checked++;
+        }
+        return checked;
+    }
+}
@@ -0,0 +1,30 @@
+package me.igorson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Benchmark
+    public int legalMoves(PositionState state) {
+        return state.game.generateLegalMoves(state.moves);
+    }
+
+    @Benchmark
+    public List<Move> allPossibleMoves(PositionState state) {
+        return state.game.calculateAllPossibleMoves(state.game.currentMove, false);
+    }
+}
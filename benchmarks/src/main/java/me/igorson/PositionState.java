@@ -0,0 +1,26 @@
+package me.igorson;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class PositionState {
+
+    @Param({"opening", "middlegame", "endgame", "promotion", "castling"})
+    public String position;
+
+    Game game;
+    int[] moves = new int[MoveGenerator.MAX_MOVES];
+    int moveCount;
+    Move[] legalMoves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.create(position);
+        moveCount = game.generateLegalMoves(moves);
+        legalMoves = game.calculateAllLegalMoves().toArray(new Move[0]);
+    }
+}
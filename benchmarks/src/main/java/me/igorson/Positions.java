@@ -0,0 +1,27 @@
+package me.igorson;
+
+final class Positions {
+
+    private Positions() {
+    }
+
+    // Piece placement, side to move and castling rights, in the form the Game constructors take them.
+    static Game create(String name) {
+        return switch (name) {
+            case "opening" -> Game.headless("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", Piece.White, true, true, true, true);
+            case "middlegame" -> Game.headless("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R", Piece.White, true, true, true, true);
+            case "endgame" -> Game.headless("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8", Piece.White, false, false, false, false);
+            case "promotion" -> Game.headless("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N", Piece.Black, false, false, false, false);
+            case "castling" -> Game.headless("r3k2r/8/8/8/8/8/8/R3K2R", Piece.White, true, true, true, true);
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        };
+    }
+
+    static String placement(String name) {
+        return Game.generateFen(create(name).getSquares());
+    }
+
+    static String fen(String name) {
+        return create(name).getFen();
+    }
+}
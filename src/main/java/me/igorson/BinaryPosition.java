@@ -0,0 +1,86 @@
+package me.igorson;
+
+import java.nio.ByteBuffer;
+
+// A position in 32 bytes: the occupied squares, one nibble per piece in square order, then the side to move,
+// castling rights, en passant square and clocks. Multi-byte values use the buffer's byte order.
+final class BinaryPosition {
+
+    static final int SIZE = 32;
+
+    // Offsets of the three parts within a record.
+    private static final int OCCUPANCY = 0, PIECES = 8, STATE = 24;
+
+    // State bits: side to move 0, castling rights 1-4, en passant square + 1 5-11, halfmove clock 12-21,
+    // fullmove number 22-41.
+    private static final int MAX_HALFMOVE_CLOCK = (1 << 10) - 1;
+    private static final int MAX_FULLMOVE_NUMBER = (1 << 20) - 1;
+
+    private BinaryPosition() {
+    }
+
+    // Writes the record at the given absolute offset without moving the buffer's position.
+    static void write(Board board, ByteBuffer buffer, int offset) {
+
+        long occupied = board.occupied;
+
+        if (Long.bitCount(occupied) > 32) {
+            throw new IllegalArgumentException("More than 32 pieces cannot be packed");
+        }
+
+        long low = 0, high = 0;
+        int index = 0;
+
+        for (long remaining = occupied; remaining != 0; remaining &= remaining - 1, index++) {
+            long nibble = nibble(board.squares[Long.numberOfTrailingZeros(remaining)]);
+
+            if (index < 16) low |= nibble << (index * 4);
+            else high |= nibble << ((index - 16) * 4);
+        }
+
+        long state = (board.sideToMove == Piece.Black ? 1L : 0L)
+                | (long) board.castlingRights << 1
+                | (long) (board.enPassantSquare + 1) << 5
+                | (long) Math.min(board.halfmoveClock, MAX_HALFMOVE_CLOCK) << 12
+                | (long) Math.min(board.fullmoveNumber, MAX_FULLMOVE_NUMBER) << 22;
+
+        buffer.putLong(offset + OCCUPANCY, occupied);
+        buffer.putLong(offset + PIECES, low);
+        buffer.putLong(offset + PIECES + 8, high);
+        buffer.putLong(offset + STATE, state);
+    }
+
+    // Sets up the board from the record at the given absolute offset; the board's move history is dropped.
+    static void read(ByteBuffer buffer, int offset, Board board) {
+
+        long occupied = buffer.getLong(offset + OCCUPANCY);
+        long low = buffer.getLong(offset + PIECES);
+        long high = buffer.getLong(offset + PIECES + 8);
+        long state = buffer.getLong(offset + STATE);
+
+        board.clear();
+
+        int index = 0;
+
+        for (long remaining = occupied; remaining != 0; remaining &= remaining - 1, index++) {
+            long nibbles = index < 16 ? low >>> (index * 4) : high >>> ((index - 16) * 4);
+            board.putPiece(piece((int) nibbles & 15), Long.numberOfTrailingZeros(remaining));
+        }
+
+        board.sideToMove = (state & 1) != 0 ? Piece.Black : Piece.White;
+        board.castlingRights = (int) (state >>> 1) & 15;
+        board.enPassantSquare = (int) (state >>> 5 & 127) - 1;
+        board.halfmoveClock = (int) (state >>> 12) & MAX_HALFMOVE_CLOCK;
+        board.fullmoveNumber = (int) (state >>> 22) & MAX_FULLMOVE_NUMBER;
+        board.key = board.computeKey();
+    }
+
+    // Piece types 1 to 6 become 0 to 5 for white and 6 to 11 for black.
+    private static int nibble(int piece) {
+        return (piece & 7) - 1 + ((piece & Piece.Black) != 0 ? 6 : 0);
+    }
+
+    private static int piece(int nibble) {
+        return nibble < 6 ? Piece.White + nibble + 1 : Piece.Black + nibble - 5;
+    }
+}
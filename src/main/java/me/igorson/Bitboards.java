@@ -0,0 +1,108 @@
+package me.igorson;
+
+final class Bitboards {
+
+    // Square 0 is A8 and square 63 is H1, the same order as Game.squares.
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+
+    static final long RANK_8 = 0xFFL;
+    static final long RANK_6 = RANK_8 << 16;
+    static final long RANK_3 = RANK_8 << 40;
+    static final long RANK_1 = RANK_8 << 56;
+
+    static final int NORTH = 0, SOUTH = 1, EAST = 2, WEST = 3, NORTH_EAST = 4, NORTH_WEST = 5, SOUTH_EAST = 6, SOUTH_WEST = 7;
+
+    private static final int[] FILE_STEP = {0, 0, 1, -1, 1, -1, 1, -1};
+    private static final int[] RANK_STEP = {-1, 1, 0, 0, -1, -1, 1, 1};
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+
+    // Indexed by color index (0 white, 1 black) and square.
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Indexed by direction and square, the squares up to the board edge.
+    static final long[][] RAYS = new long[8][64];
+
+    // Indexed by from * 64 + to, the squares strictly between two aligned squares and the whole line through them.
+    static final long[] BETWEEN = new long[64 * 64];
+    static final long[] LINE = new long[64 * 64];
+
+    private static final int[] OPPOSITE = {SOUTH, NORTH, WEST, EAST, SOUTH_WEST, SOUTH_EAST, NORTH_WEST, NORTH_EAST};
+
+    static {
+        int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            int row = square >> 3;
+
+            for (int[] step : knightSteps) {
+                KNIGHT_ATTACKS[square] |= bit(file + step[0], row + step[1]);
+            }
+
+            for (int direction = 0; direction < 8; direction++) {
+                KING_ATTACKS[square] |= bit(file + FILE_STEP[direction], row + RANK_STEP[direction]);
+
+                for (int n = 1; n < 8; n++) {
+                    RAYS[direction][square] |= bit(file + FILE_STEP[direction] * n, row + RANK_STEP[direction] * n);
+                }
+            }
+
+            PAWN_ATTACKS[0][square] = bit(file - 1, row - 1) | bit(file + 1, row - 1);
+            PAWN_ATTACKS[1][square] = bit(file - 1, row + 1) | bit(file + 1, row + 1);
+        }
+
+        for (int square = 0; square < 64; square++) {
+            for (int direction = 0; direction < 8; direction++) {
+                long ray = RAYS[direction][square];
+                long line = ray | RAYS[OPPOSITE[direction]][square] | 1L << square;
+
+                while (ray != 0) {
+                    int target = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+
+                    BETWEEN[square * 64 + target] = RAYS[direction][square] & ~RAYS[direction][target] & ~(1L << target);
+                    LINE[square * 64 + target] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static long bit(int file, int row) {
+        if (file < 0 || file > 7 || row < 0 || row > 7) return 0L;
+        return 1L << (row * 8 + file);
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return rayAttacks(NORTH, square, occupied) | rayAttacks(SOUTH, square, occupied)
+                | rayAttacks(EAST, square, occupied) | rayAttacks(WEST, square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return rayAttacks(NORTH_EAST, square, occupied) | rayAttacks(NORTH_WEST, square, occupied)
+                | rayAttacks(SOUTH_EAST, square, occupied) | rayAttacks(SOUTH_WEST, square, occupied);
+    }
+
+    private static long rayAttacks(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+
+        if (blockers == 0) return ray;
+
+        // East and the south directions walk towards higher square indexes, the rest towards lower ones.
+        int blocker = direction == SOUTH || direction == EAST || direction == SOUTH_EAST || direction == SOUTH_WEST
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+
+        return ray ^ RAYS[direction][blocker];
+    }
+
+    static int colorIndex(int color) {
+        return color >> 4;
+    }
+}
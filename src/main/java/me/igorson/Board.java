@@ -0,0 +1,453 @@
+package me.igorson;
+
+import java.util.Arrays;
+
+final class Board {
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+
+    // Castling rights that survive a move touching the given square.
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[0] = ~BLACK_QUEENSIDE & 15;
+        CASTLING_MASK[4] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15;
+        CASTLING_MASK[7] = ~BLACK_KINGSIDE & 15;
+        CASTLING_MASK[56] = ~WHITE_QUEENSIDE & 15;
+        CASTLING_MASK[60] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15;
+        CASTLING_MASK[63] = ~WHITE_KINGSIDE & 15;
+    }
+
+    // Indexed by the piece code used in squares, e.g. pieces[Piece.White + Piece.Rook].
+    final long[] pieces = new long[Piece.Black + Piece.King + 1];
+    final long[] colors = new long[2];
+    long occupied;
+
+    final int[] squares = new int[64];
+
+    int sideToMove = Piece.White;
+    int castlingRights;
+    int enPassantSquare = -1;
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+
+    // Zobrist key of the position, kept up to date by every piece and state change.
+    long key;
+
+    // Sum of Evaluation.PSQ over the pieces and sum of their Evaluation.PHASE weights, kept up to date like key.
+    int psq;
+    int phase;
+
+    // Calls seen by Stats.sample on this board, which is only used by one thread at a time.
+    int statsCalls;
+
+    // One packed record per made move, see pushUndo for the layout. Grows only when a game gets longer than it.
+    private static final int MOVE_MASK = (1 << 19) - 1;
+
+    // Attackers in the order staticExchange tries them, and the running balance of each capture in the exchange.
+    private static final int[] CHEAPEST_FIRST = {Piece.Pawn, Piece.Knight, Piece.Bishop, Piece.Rook, Piece.Queen, Piece.King};
+    private static final int KING_VALUE = 20_000;
+
+    private final int[] exchangeGains = new int[32];
+
+    private long[] undoStack = new long[1024];
+    private long[] keyHistory = new long[1024];
+    private int undoCount;
+
+    Board() {
+    }
+
+    // An independent copy, including the undo history, for use on another thread.
+    Board(Board other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        occupied = other.occupied;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        psq = other.psq;
+        phase = other.phase;
+        undoStack = other.undoStack.clone();
+        keyHistory = other.keyHistory.clone();
+        undoCount = other.undoCount;
+    }
+
+    // Empties the board and forgets the moves made so far; side to move, castling rights and clocks are left as they are.
+    void clear() {
+        Arrays.fill(pieces, 0);
+        Arrays.fill(squares, 0);
+        colors[0] = 0;
+        colors[1] = 0;
+        occupied = 0;
+        key = 0;
+        psq = 0;
+        phase = 0;
+        enPassantSquare = -1;
+        undoCount = 0;
+    }
+
+    void putPiece(int piece, int square) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[Bitboards.colorIndex(piece & (Piece.White | Piece.Black))] |= bit;
+        occupied |= bit;
+        squares[square] = piece;
+        key ^= Zobrist.PIECES[piece * 64 + square];
+        psq += Evaluation.PSQ[piece * 64 + square];
+        phase += Evaluation.PHASE[piece & 7];
+    }
+
+    void removePiece(int square) {
+        int piece = squares[square];
+        long bit = 1L << square;
+        pieces[piece] &= ~bit;
+        colors[Bitboards.colorIndex(piece & (Piece.White | Piece.Black))] &= ~bit;
+        occupied &= ~bit;
+        squares[square] = 0;
+        key ^= Zobrist.PIECES[piece * 64 + square];
+        psq -= Evaluation.PSQ[piece * 64 + square];
+        phase -= Evaluation.PHASE[piece & 7];
+    }
+
+    private void movePiece(int from, int to) {
+        int piece = squares[from];
+        long fromTo = (1L << from) | (1L << to);
+        pieces[piece] ^= fromTo;
+        colors[Bitboards.colorIndex(piece & (Piece.White | Piece.Black))] ^= fromTo;
+        occupied ^= fromTo;
+        squares[from] = 0;
+        squares[to] = piece;
+        key ^= Zobrist.PIECES[piece * 64 + from] ^ Zobrist.PIECES[piece * 64 + to];
+        psq += Evaluation.PSQ[piece * 64 + to] - Evaluation.PSQ[piece * 64 + from];
+    }
+
+    void makeMove(int move) {
+
+        long start = 0;
+
+        if (Stats.on()) {
+            Stats.makeMoves.increment();
+            start = Stats.sample(this);
+        }
+
+        int from = Move.from(move), to = Move.to(move), promotion = Move.promotion(move);
+        int piece = squares[from];
+        int type = piece & 7;
+
+        boolean enPassant = type == Piece.Pawn && to == enPassantSquare;
+        int capturedSquare = enPassant ? (sideToMove == Piece.White ? to + 8 : to - 8) : to;
+
+        pushUndo(move, piece, squares[capturedSquare]);
+
+        key ^= enPassantKey();
+
+        halfmoveClock++;
+
+        if (squares[capturedSquare] != 0) {
+            removePiece(capturedSquare);
+            halfmoveClock = 0;
+        }
+
+        movePiece(from, to);
+
+        enPassantSquare = -1;
+
+        if (type == Piece.Pawn) {
+            halfmoveClock = 0;
+
+            if (Math.abs(to - from) == 16) {
+                enPassantSquare = (from + to) / 2;
+            }
+
+            if (promotion != 0) {
+                removePiece(to);
+                putPiece(promotion + sideToMove, to);
+            }
+        }
+
+        if (type == Piece.King && Math.abs(to - from) == 2) {
+            if (to > from) {
+                movePiece(from + 3, from + 1);
+            } else {
+                movePiece(from - 4, from - 1);
+            }
+        }
+
+        key ^= Zobrist.CASTLING[castlingRights];
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.CASTLING[castlingRights];
+
+        if (sideToMove == Piece.Black) {
+            fullmoveNumber++;
+        }
+        sideToMove = opponent(sideToMove);
+
+        key ^= Zobrist.SIDE ^ enPassantKey();
+
+        if (start != 0) Stats.makeMoveTimes.record(System.nanoTime() - start);
+    }
+
+    void undoMove() {
+
+        long start = 0;
+
+        if (Stats.on()) {
+            Stats.undoMoves.increment();
+            start = Stats.sample(this);
+        }
+
+        long record = undoStack[--undoCount];
+        long previousKey = keyHistory[undoCount];
+
+        int move = (int) record & MOVE_MASK;
+        int from = Move.from(move), to = Move.to(move), promotion = Move.promotion(move);
+        int piece = (int) (record >>> 19) & 31;
+        int captured = (int) (record >>> 24) & 31;
+
+        enPassantSquare = (int) ((record >>> 29) & 127) - 1;
+        castlingRights = (int) (record >>> 36) & 15;
+        halfmoveClock = (int) (record >>> 40) & 0xFFFF;
+
+        sideToMove = opponent(sideToMove);
+        if (sideToMove == Piece.Black) {
+            fullmoveNumber--;
+        }
+
+        if ((piece & 7) == Piece.King && Math.abs(to - from) == 2) {
+            if (to > from) {
+                movePiece(from + 1, from + 3);
+            } else {
+                movePiece(from - 1, from - 4);
+            }
+        }
+
+        if (promotion != 0) {
+            removePiece(to);
+            putPiece(piece, from);
+        } else {
+            movePiece(to, from);
+        }
+
+        if (captured != 0) {
+            if ((piece & 7) == Piece.Pawn && to == enPassantSquare) {
+                putPiece(captured, sideToMove == Piece.White ? to + 8 : to - 8);
+            } else {
+                putPiece(captured, to);
+            }
+        }
+
+        key = previousKey;
+
+        if (start != 0) Stats.undoMoveTimes.record(System.nanoTime() - start);
+    }
+
+    private void pushUndo(int move, int piece, int captured) {
+
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+            keyHistory = Arrays.copyOf(keyHistory, undoCount * 2);
+        }
+
+        keyHistory[undoCount] = key;
+
+        // packed move 0-18, moved piece 19-23, captured piece 24-28, en-passant square + 1 at 29-35,
+        // castling rights 36-39, halfmove clock 40-55.
+        undoStack[undoCount++] = (move & MOVE_MASK)
+                | (long) piece << 19
+                | (long) captured << 24
+                | (long) (enPassantSquare + 1) << 29
+                | (long) castlingRights << 36
+                | (long) Math.min(halfmoveClock, 0xFFFF) << 40;
+    }
+
+    // The en-passant file only counts when a pawn of the side to move could actually capture there,
+    // so positions that differ in nothing else still share a key.
+    private long enPassantKey() {
+
+        if (enPassantSquare == -1) return 0;
+
+        long capturers = Bitboards.PAWN_ATTACKS[Bitboards.colorIndex(opponent(sideToMove))][enPassantSquare]
+                & pieces[Piece.Pawn + sideToMove];
+
+        return capturers == 0 ? 0 : Zobrist.EN_PASSANT_FILE[enPassantSquare & 7];
+    }
+
+    long computeKey() {
+
+        long result = 0;
+
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != 0) {
+                result ^= Zobrist.PIECES[squares[square] * 64 + square];
+            }
+        }
+
+        result ^= Zobrist.CASTLING[castlingRights] ^ enPassantKey();
+
+        return sideToMove == Piece.Black ? result ^ Zobrist.SIDE : result;
+    }
+
+    // The incremental evaluation terms recomputed from the squares, to check psq and phase against.
+    int computePsq() {
+
+        int result = 0;
+
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != 0) {
+                result += Evaluation.PSQ[squares[square] * 64 + square];
+            }
+        }
+        return result;
+    }
+
+    int computePhase() {
+
+        int result = 0;
+
+        for (int square = 0; square < 64; square++) {
+            result += Evaluation.PHASE[squares[square] & 7];
+        }
+        return result;
+    }
+
+    // Whether the current position already occurred twice since the last capture or pawn move.
+    boolean isThreefoldRepetition() {
+        return repetitions(2) == 2;
+    }
+
+    // Whether the current position already occurred since the last capture or pawn move; enough for a search to call it a draw.
+    boolean isRepetition() {
+        return repetitions(1) == 1;
+    }
+
+    private int repetitions(int limit) {
+
+        int occurrences = 0;
+        int earliest = Math.max(0, undoCount - halfmoveClock);
+
+        for (int i = undoCount - 2; i >= earliest && occurrences < limit; i -= 2) {
+            if (keyHistory[i] == key) {
+                occurrences++;
+            }
+        }
+        return occurrences;
+    }
+
+    // The last move made in packed form, or 0 when no move has been made.
+    int lastMove() {
+        return moveAt(1);
+    }
+
+    // The move made the given number of plies ago, 1 being the last one, or 0 past the start of the history.
+    int moveAt(int pliesAgo) {
+        return pliesAgo > undoCount ? 0 : (int) undoStack[undoCount - pliesAgo] & MOVE_MASK;
+    }
+
+    // Material won by the side to move in centipawns if both sides keep recapturing on the target square of the move
+    // with their cheapest attacker for as long as that pays off. Pieces behind a capturer join in as it leaves the line.
+    int staticExchange(int move) {
+
+        int from = Move.from(move), to = Move.to(move), promotion = Move.promotion(move);
+        int[] gains = exchangeGains;
+
+        long occupancy = occupied ^ (1L << from);
+
+        if ((move & Move.EN_PASSANT) != 0) {
+            occupancy ^= 1L << (sideToMove == Piece.White ? to + 8 : to - 8);
+            gains[0] = Evaluation.PIECE_VALUES[Piece.Pawn];
+        } else {
+            gains[0] = Evaluation.PIECE_VALUES[squares[to] & 7];
+        }
+
+        int onSquare = exchangeValue(squares[from] & 7);
+
+        if (promotion != 0) {
+            gains[0] += Evaluation.PIECE_VALUES[promotion] - Evaluation.PIECE_VALUES[Piece.Pawn];
+            onSquare = Evaluation.PIECE_VALUES[promotion];
+        }
+
+        int side = opponent(sideToMove);
+        int depth = 0;
+
+        while (true) {
+
+            long attackers = attackersOf(to, side, occupancy) & occupancy;
+
+            if (attackers == 0) break;
+
+            depth++;
+            gains[depth] = onSquare - gains[depth - 1];
+
+            // Neither side can gain by going on, whatever follows, so this capture is not made.
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                depth--;
+                break;
+            }
+
+            for (int type : CHEAPEST_FIRST) {
+                long candidates = attackers & pieces[type + side];
+
+                if (candidates != 0) {
+                    occupancy ^= candidates & -candidates;
+                    onSquare = exchangeValue(type);
+                    break;
+                }
+            }
+
+            side = opponent(side);
+        }
+
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+
+        return gains[0];
+    }
+
+    // The king is worth more than everything else, so taking a defended piece with it never pays.
+    private static int exchangeValue(int type) {
+        return type == Piece.King ? KING_VALUE : Evaluation.PIECE_VALUES[type];
+    }
+
+    static int opponent(int color) {
+        return color == Piece.White ? Piece.Black : Piece.White;
+    }
+
+    int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Piece.King + color]);
+    }
+
+    boolean isInCheck(int color) {
+
+        long start = Stats.on() ? Stats.sample(this) : 0;
+
+        boolean checked = isSquareAttacked(kingSquare(color), opponent(color));
+
+        if (start != 0) Stats.checkTestTimes.record(System.nanoTime() - start);
+
+        return checked;
+    }
+
+    boolean isSquareAttacked(int square, int byColor) {
+        return attackersOf(square, byColor, occupied) != 0;
+    }
+
+    long attackersOf(int square, int byColor, long occupancy) {
+        long queens = pieces[Piece.Queen + byColor];
+
+        return (Bitboards.PAWN_ATTACKS[Bitboards.colorIndex(opponent(byColor))][square] & pieces[Piece.Pawn + byColor])
+                | (Bitboards.KNIGHT_ATTACKS[square] & pieces[Piece.Knight + byColor])
+                | (Bitboards.KING_ATTACKS[square] & pieces[Piece.King + byColor])
+                | (Bitboards.bishopAttacks(square, occupancy) & (pieces[Piece.Bishop + byColor] | queens))
+                | (Bitboards.rookAttacks(square, occupancy) & (pieces[Piece.Rook + byColor] | queens));
+    }
+}
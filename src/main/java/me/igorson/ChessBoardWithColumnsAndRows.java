@@ -1,33 +1,43 @@
 package me.igorson;
 
-import org.apache.batik.transcoder.SVGAbstractTranscoder;
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
-import org.apache.batik.transcoder.image.PNGTranscoder;
-
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ChessBoardWithColumnsAndRows implements GameRenderer {
+    private static final String COLS = "ABCDEFGH";
+    private static final Color LIGHT = Color.decode("#FFEEE2");
+    private static final Color DARK = Color.decode("#A68973");
+    private static final int ICON_SIZE = 64;
 
-public class ChessBoardWithColumnsAndRows {
+    // Indexed by grid cell, a8 first as seen from white. The buttons and coordinate labels stay in the grid for good;
+    // turning the board only changes which square each cell shows and the label texts.
     private JButton[] chessBoardSquares = new JButton[64];
+    private final JLabel[] fileLabels = new JLabel[8];
+    private final JLabel[] rankLabels = new JLabel[8];
     private JPanel chessBoard = new JPanel(new GridLayout(9, 9));
-    private static final String COLS = "ABCDEFGH";
 
-    private Game game;
+    // The pieces the buttons show right now by grid cell, so a refresh only touches the cells that changed.
+    private final int[] shown = new int[64];
+    private boolean flipped;
+
+    // The newest position not shown yet, the 64 squares followed by the side to move, which is shown at the bottom.
+    // Positions arriving faster than the EDT shows them replace each other, so only the latest one is drawn.
+    private final AtomicReference<int[]> pending = new AtomicReference<>();
 
     JFrame f;
 
     ChessBoardWithColumnsAndRows(Game game) {
-        this.game = game;
+
+        pending.set(snapshot(game));
 
         Runnable r = () -> {
 
             f = new JFrame("Chess");
 
-            reloadGui();
+            buildBoard();
+            showPending();
 
             f.add(chessBoard);
 
@@ -44,130 +54,84 @@ public class ChessBoardWithColumnsAndRows {
 
     }
 
-    public final void reloadGui() {
-
-                chessBoard.removeAll();
-
-                Insets buttonMargin = new Insets(0, 0, 0, 0);
-                for (int i = 0; i < 64; i++) {
-
-                    JButton b = new JButton();
-                    b.setMargin(buttonMargin);
-                    b.setSize(new Dimension(100, 100));
-
-                    if (getPieceURI(game.getSquares()[i]) != null) {
-                        ByteArrayOutputStream resultByteStream = new ByteArrayOutputStream();
-
-                        TranscoderInput transcoderInput = new TranscoderInput(String.valueOf(getClass().getClassLoader().getResource(getPieceURI(game.getSquares()[i]))));
-                        TranscoderOutput transcoderOutput = new TranscoderOutput(resultByteStream);
-
-                        try {
-                            PNGTranscoder pngTranscoder = new PNGTranscoder();
-                            pngTranscoder.addTranscodingHint(SVGAbstractTranscoder.KEY_HEIGHT, 64f);
-                            pngTranscoder.addTranscodingHint(SVGAbstractTranscoder.KEY_WIDTH, 64f);
-                            pngTranscoder.transcode(transcoderInput, transcoderOutput);
-
-                            resultByteStream.flush();
+    @Override
+    public void render(Game game) {
+        if (pending.getAndSet(snapshot(game)) == null) {
+            SwingUtilities.invokeLater(this::showPending);
+        }
+    }
 
-                            ImageIcon image = new ImageIcon(ImageIO.read(new ByteArrayInputStream(resultByteStream.toByteArray())));
+    private static int[] snapshot(Game game) {
+        int[] position = Arrays.copyOf(game.getSquares(), 65);
+        position[64] = game.currentMove;
+        return position;
+    }
 
-                            b.setIcon(image);
+    // Fills the grid once; the colors never change because the board looks the same upside down.
+    private void buildBoard() {
 
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
+        Insets buttonMargin = new Insets(0, 0, 0, 0);
 
-                    int row = i / 8 + 1;
-                    int file = ((i + 8) % 8) + 1;
+        chessBoard.add(new JLabel(""));
+        for (int i = 0; i < 8; i++) {
+            fileLabels[i] = new JLabel("", SwingConstants.CENTER);
+            chessBoard.add(fileLabels[i]);
+        }
 
-                    if (row % 2 == 0) {
-                        if (file % 2 != 0) {
-                            b.setBackground(Color.decode("#A68973"));
-                        } else {
-                            b.setBackground(Color.decode("#FFEEE2"));
+        for (int cell = 0; cell < 64; cell++) {
 
-                        }
-                    } else {
-                        if (file % 2 != 0) {
-                            b.setBackground(Color.decode("#FFEEE2"));
+            if (cell % 8 == 0) {
+                rankLabels[cell / 8] = new JLabel("", SwingConstants.CENTER);
+                chessBoard.add(rankLabels[cell / 8]);
+            }
 
-                        } else {
-                            b.setBackground(Color.decode("#A68973"));
+            JButton b = new JButton();
+            b.setMargin(buttonMargin);
+            b.setBackground((cell / 8 + cell % 8) % 2 == 0 ? LIGHT : DARK);
+            b.setBorderPainted(false);
+            b.setFocusPainted(false);
 
-                        }
-                    }
+            chessBoardSquares[cell] = b;
+            chessBoard.add(b);
+        }
 
-                    b.setBorderPainted(false);
-                    b.setFocusPainted(false);
-                    chessBoardSquares[i] = b;
-                }
+        labelBoard();
+    }
 
+    private void labelBoard() {
+        for (int i = 0; i < 8; i++) {
+            int file = flipped ? 7 - i : i;
+            int row = flipped ? 7 - i : i;
 
-                chessBoard.add(new JLabel(""));
-                for (int i = 0; i < 8; i++) {
+            fileLabels[i].setText(COLS.substring(file, file + 1));
+            rankLabels[i].setText("" + (8 - row));
+        }
+    }
 
-                    if(game.currentMove == Piece.Black){
-                        chessBoard.add(
-                                new JLabel(COLS.substring(8 - i - 1, 8 - i),
-                                        SwingConstants.CENTER));
+    // Only the cells whose piece changed get a new icon: usually two to four per move, and the occupied cells of
+    // both halves when the board turns to the other side.
+    private void showPending() {
 
-                    } else {
-                        chessBoard.add(
-                                new JLabel(COLS.substring(i, i + 1),
-                                        SwingConstants.CENTER));
-                    }
-                }
-                for (int i = 0; i < 64; i++) {
+        int[] position = pending.getAndSet(null);
 
-                    switch ((i + 8) % 8) {
-                        case 0:
+        if (position == null) return;
 
-                            if(game.currentMove == Piece.Black){
-                                chessBoard.add(new JLabel("" + ((i / 8) + 1),
-                                        SwingConstants.CENTER));
-                            } else {
-                                chessBoard.add(new JLabel("" + (8 - (i / 8)),
-                                        SwingConstants.CENTER));
-                            }
+        boolean flip = position[64] == Piece.Black;
 
-                        default:
-                            if(game.currentMove == Piece.Black){
-                                chessBoard.add(chessBoardSquares[63 - i]);
-                            } else {
-                                chessBoard.add(chessBoardSquares[i]);
-                            }
-                    }
-                }
+        if (flip != flipped) {
+            flipped = flip;
+            labelBoard();
+        }
 
-                f.revalidate();
-    }
+        for (int cell = 0; cell < 64; cell++) {
 
-    private String getPieceURI(int piece) {
-        String result = null;
-
-        switch (piece - game.getColor(piece)) {
-            case 1:
-                result = game.getColor(piece) == Piece.White ? "wPawn.svg" : "bPawn.svg";
-                break;
-            case 2:
-                result = game.getColor(piece) == Piece.White ? "wBishop.svg" : "bBishop.svg";
-                break;
-            case 3:
-                result = game.getColor(piece) == Piece.White ? "wKnight.svg" : "bKnight.svg";
-                break;
-            case 4:
-                result = game.getColor(piece) == Piece.White ? "wRook.svg" : "bRook.svg";
-                break;
-            case 5:
-                result = game.getColor(piece) == Piece.White ? "wQueen.svg" : "bQueen.svg";
-                break;
-            case 6:
-                result = game.getColor(piece) == Piece.White ? "wKing.svg" : "bKing.svg";
-                break;
+            int piece = position[flipped ? 63 - cell : cell];
 
+            if (piece != shown[cell]) {
+                shown[cell] = piece;
+                chessBoardSquares[cell].setIcon(PieceImages.icon(piece, ICON_SIZE));
+            }
         }
-        return result;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package me.igorson;
+
+import java.util.Scanner;
+import java.util.stream.IntStream;
+
+class ConsoleInput implements MoveInput {
+
+    private final Scanner sc = new Scanner(System.in);
+
+    @Override
+    public Move readMove() {
+        char[] letters = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H'};
+
+        String input, from, to;
+        int fromSquare, toSquare;
+
+        while (true) {
+
+            System.out.println("Enter move. (Example: A1 A2).");
+            input = sc.nextLine();
+            if (!input.matches("([A-H][1-8]) ([A-H][1-8])")) {
+                System.out.println("Entered incorrect move. Try again.");
+                continue;
+            }
+            from = input.split(" ")[0];
+            to = input.split(" ")[1];
+            break;
+        }
+
+        fromSquare = (8 - (Integer.parseInt(String.valueOf(from.charAt(1))))) * 8 + indexOf(letters, from.charAt(0));
+        toSquare = (8 - (Integer.parseInt(String.valueOf(to.charAt(1))))) * 8 + indexOf(letters, to.charAt(0));
+
+        return new Move(fromSquare, toSquare);
+    }
+
+    @Override
+    public int readPromotionPiece(int side) {
+        int chosenPiece = 0;
+
+        while (chosenPiece == 0) {
+            System.out.println("Enter piece you want promote to. " + (side == 8 ? "(N, B, R, Q)" : "(n, b, r, q)"));
+            String input = sc.nextLine();
+            input = input.toLowerCase();
+            if (input.equals("n") || input.equals("b") || input.equals("r") || input.equals("q")) {
+                char inputChar = input.charAt(0);
+                switch (inputChar) {
+                    case 'n' -> chosenPiece = Piece.Knight;
+                    case 'b' -> chosenPiece = Piece.Bishop;
+                    case 'r' -> chosenPiece = Piece.Rook;
+                    case 'q' -> chosenPiece = Piece.Queen;
+                }
+            }
+        }
+        return chosenPiece;
+    }
+
+    private static int indexOf(char[] arr, char val) {
+        return IntStream.range(0, arr.length).filter(i -> arr[i] == val).findFirst().orElse(-1);
+    }
+}
@@ -0,0 +1,223 @@
+package me.igorson;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+
+// Exposes Stats as the MBean me.igorson:type=EngineStats, e.g. for JConsole or Java Mission Control.
+final class EngineStats implements EngineStatsMBean {
+
+    static final String NAME = "me.igorson:type=EngineStats";
+
+    private EngineStats() {
+    }
+
+    // Registers the MBean with the platform MBean server once; later calls do nothing.
+    static synchronized void register() {
+        try {
+            ObjectName name = new ObjectName(NAME);
+
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new EngineStats(), EngineStatsMBean.class), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return Stats.on();
+    }
+
+    // The hooks are only compiled in when the JVM was started with -Dfinalchess.stats=true.
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled && !Stats.AVAILABLE) {
+            throw new IllegalStateException("Statistics need -Dfinalchess.stats=true at startup");
+        }
+        Stats.enabled = enabled;
+    }
+
+    @Override
+    public long getMakeMoves() {
+        return Stats.makeMoves.sum();
+    }
+
+    @Override
+    public long getUndoMoves() {
+        return Stats.undoMoves.sum();
+    }
+
+    @Override
+    public long getLegalMoveGenerations() {
+        return Stats.legalMoveGenerations.sum();
+    }
+
+    @Override
+    public long getPseudoLegalMoveGenerations() {
+        return Stats.pseudoLegalMoveGenerations.sum();
+    }
+
+    @Override
+    public long getSearchNodes() {
+        return Stats.searchNodes.sum();
+    }
+
+    @Override
+    public long getPerftNodes() {
+        return Stats.perftNodes.sum();
+    }
+
+    @Override
+    public long getTableProbes() {
+        return Stats.tableProbes.sum();
+    }
+
+    @Override
+    public long getTableHits() {
+        return Stats.tableHits.sum();
+    }
+
+    @Override
+    public long getTableCollisions() {
+        return Stats.tableCollisions.sum();
+    }
+
+    @Override
+    public long getTableStores() {
+        return Stats.tableStores.sum();
+    }
+
+    @Override
+    public double getTableHitRate() {
+        long probes = Stats.tableProbes.sum();
+        return probes == 0 ? 0 : (double) Stats.tableHits.sum() / probes;
+    }
+
+    @Override
+    public long getMakeMoveSamples() {
+        return Stats.makeMoveTimes.count();
+    }
+
+    @Override
+    public double getMakeMoveMeanNanos() {
+        return Stats.makeMoveTimes.mean();
+    }
+
+    @Override
+    public long getMakeMoveP99Nanos() {
+        return Stats.makeMoveTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getUndoMoveSamples() {
+        return Stats.undoMoveTimes.count();
+    }
+
+    @Override
+    public double getUndoMoveMeanNanos() {
+        return Stats.undoMoveTimes.mean();
+    }
+
+    @Override
+    public long getUndoMoveP99Nanos() {
+        return Stats.undoMoveTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getLegalGenerationSamples() {
+        return Stats.legalGenerationTimes.count();
+    }
+
+    @Override
+    public double getLegalGenerationMeanNanos() {
+        return Stats.legalGenerationTimes.mean();
+    }
+
+    @Override
+    public long getLegalGenerationP99Nanos() {
+        return Stats.legalGenerationTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getPseudoLegalGenerationSamples() {
+        return Stats.pseudoLegalGenerationTimes.count();
+    }
+
+    @Override
+    public double getPseudoLegalGenerationMeanNanos() {
+        return Stats.pseudoLegalGenerationTimes.mean();
+    }
+
+    @Override
+    public long getPseudoLegalGenerationP99Nanos() {
+        return Stats.pseudoLegalGenerationTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getCheckTestSamples() {
+        return Stats.checkTestTimes.count();
+    }
+
+    @Override
+    public double getCheckTestMeanNanos() {
+        return Stats.checkTestTimes.mean();
+    }
+
+    @Override
+    public long getCheckTestP99Nanos() {
+        return Stats.checkTestTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getPossibleMovesCalls() {
+        return Stats.possibleMoves.count();
+    }
+
+    @Override
+    public double getPossibleMovesMeanNanos() {
+        return Stats.possibleMoves.mean();
+    }
+
+    @Override
+    public long getPossibleMovesP99Nanos() {
+        return Stats.possibleMoves.percentile(0.99);
+    }
+
+    @Override
+    public long getLegalMovesCalls() {
+        return Stats.legalMoves.count();
+    }
+
+    @Override
+    public double getLegalMovesMeanNanos() {
+        return Stats.legalMoves.mean();
+    }
+
+    @Override
+    public long getLegalMovesP99Nanos() {
+        return Stats.legalMoves.percentile(0.99);
+    }
+
+    @Override
+    public long getKingCheckCalls() {
+        return Stats.kingChecks.count();
+    }
+
+    @Override
+    public double getKingCheckMeanNanos() {
+        return Stats.kingChecks.mean();
+    }
+
+    @Override
+    public long getKingCheckP99Nanos() {
+        return Stats.kingChecks.percentile(0.99);
+    }
+
+    @Override
+    public void reset() {
+        Stats.reset();
+    }
+}
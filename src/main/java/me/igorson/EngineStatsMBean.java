@@ -0,0 +1,81 @@
+package me.igorson;
+
+// Management interface of EngineStats; JMX requires it to be public.
+public interface EngineStatsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getMakeMoves();
+
+    long getUndoMoves();
+
+    long getLegalMoveGenerations();
+
+    long getPseudoLegalMoveGenerations();
+
+    long getSearchNodes();
+
+    long getPerftNodes();
+
+    long getTableProbes();
+
+    long getTableHits();
+
+    long getTableCollisions();
+
+    long getTableStores();
+
+    double getTableHitRate();
+
+    long getMakeMoveSamples();
+
+    double getMakeMoveMeanNanos();
+
+    long getMakeMoveP99Nanos();
+
+    long getUndoMoveSamples();
+
+    double getUndoMoveMeanNanos();
+
+    long getUndoMoveP99Nanos();
+
+    long getLegalGenerationSamples();
+
+    double getLegalGenerationMeanNanos();
+
+    long getLegalGenerationP99Nanos();
+
+    long getPseudoLegalGenerationSamples();
+
+    double getPseudoLegalGenerationMeanNanos();
+
+    long getPseudoLegalGenerationP99Nanos();
+
+    long getCheckTestSamples();
+
+    double getCheckTestMeanNanos();
+
+    long getCheckTestP99Nanos();
+
+    long getPossibleMovesCalls();
+
+    double getPossibleMovesMeanNanos();
+
+    long getPossibleMovesP99Nanos();
+
+    long getLegalMovesCalls();
+
+    double getLegalMovesMeanNanos();
+
+    long getLegalMovesP99Nanos();
+
+    long getKingCheckCalls();
+
+    double getKingCheckMeanNanos();
+
+    long getKingCheckP99Nanos();
+
+    void reset();
+}
@@ -0,0 +1,144 @@
+package me.igorson;
+
+// Material and piece-square scores, tapered from the middlegame to the endgame as pieces come off. Board keeps the
+// sum of PSQ over its pieces and the game phase up to date in putPiece, removePiece and movePiece, so evaluate does
+// not look at the squares.
+final class Evaluation {
+
+    // Indexed by piece type, in centipawns.
+    static final int[] PIECE_VALUES = {0, 100, 330, 320, 500, 900, 0};
+
+    private static final int[] ENDGAME_VALUES = {0, 120, 340, 300, 530, 920, 0};
+
+    // Phase weight by piece type; all pieces of the starting position add up to MAX_PHASE.
+    static final int[] PHASE = {0, 0, 1, 1, 2, 4, 0};
+    static final int MAX_PHASE = 24;
+
+    // Middlegame and endgame score packed into one int, indexed by piece code * 64 + square like Zobrist.PIECES.
+    // White pieces count positive, black ones negative.
+    static final int[] PSQ = new int[(Piece.Black + Piece.King + 1) * 64];
+
+    // Bonuses for white by piece type, a8 first; black uses the square mirrored vertically.
+    private static final int[][] MIDDLEGAME = {
+            {},
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            },
+            {
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20
+            },
+            {
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50
+            },
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0
+            },
+            {
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20
+            },
+            {
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20
+            }
+    };
+
+    // Passed or not, pawns gain value as they advance; pieces keep their middlegame bonus except the king,
+    // which should head for the centre.
+    private static final int[] ENDGAME_PAWN_ROWS = {0, 80, 50, 30, 15, 5, 0, 0};
+
+    private static final int[] ENDGAME_KING = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    static {
+        for (int type = Piece.Pawn; type <= Piece.King; type++) {
+            for (int square = 0; square < 64; square++) {
+
+                int middlegame = PIECE_VALUES[type] + MIDDLEGAME[type][square];
+                int endgame = ENDGAME_VALUES[type] + switch (type) {
+                    case Piece.Pawn -> ENDGAME_PAWN_ROWS[square >> 3];
+                    case Piece.King -> ENDGAME_KING[square];
+                    default -> MIDDLEGAME[type][square];
+                };
+
+                PSQ[(Piece.White + type) * 64 + square] = score(middlegame, endgame);
+                PSQ[(Piece.Black + type) * 64 + (square ^ 56)] = -score(middlegame, endgame);
+            }
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    // Scores from the side to move's point of view.
+    static int evaluate(Board board) {
+
+        assert board.psq == board.computePsq() && board.phase == board.computePhase() : "Stale evaluation terms";
+
+        int phase = Math.min(board.phase, MAX_PHASE);
+        int score = (middlegame(board.psq) * phase + endgame(board.psq) * (MAX_PHASE - phase)) / MAX_PHASE;
+
+        return board.sideToMove == Piece.White ? score : -score;
+    }
+
+    // Both halves stay far below 2^15, so packed scores can be added and negated as plain ints.
+    static int score(int middlegame, int endgame) {
+        return (middlegame << 16) + endgame;
+    }
+
+    static int middlegame(int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    static int endgame(int score) {
+        return (short) score;
+    }
+}
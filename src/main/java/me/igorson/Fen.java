@@ -0,0 +1,329 @@
+package me.igorson;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Forsyth-Edwards Notation and its EPD variant, read and written in a single pass over the text.
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Indexed by piece code, e.g. CHARS[Piece.White + Piece.Knight] is 'N'.
+    private static final char[] CHARS = new char[Piece.Black + Piece.King + 1];
+
+    static {
+        String letters = "pbnrqk";
+        for (int type = Piece.Pawn; type <= Piece.King; type++) {
+            CHARS[Piece.Black + type] = letters.charAt(type - 1);
+            CHARS[Piece.White + type] = Character.toUpperCase(letters.charAt(type - 1));
+        }
+    }
+
+    private Fen() {
+    }
+
+    // Sets up the board from all six fields; missing clocks default to "0 1". The move history is dropped.
+    static void parse(String fen, Board board) {
+
+        int i = parsePosition(fen, board);
+
+        i = skipSpaces(fen, i);
+
+        if (i < fen.length()) {
+            int end = tokenEnd(fen, i);
+            board.halfmoveClock = parseNumber(fen, i, end);
+
+            i = skipSpaces(fen, end);
+            end = tokenEnd(fen, i);
+            board.fullmoveNumber = i < end ? parseNumber(fen, i, end) : 1;
+        } else {
+            board.halfmoveClock = 0;
+            board.fullmoveNumber = 1;
+        }
+    }
+
+    // Sets up the board from the four EPD position fields and returns the operations in order, e.g. "bm" -> "Nf3"
+    // or "D5" -> "4865609", with the quotes of string operands removed. The hmvc and fmvn operations set the clocks.
+    static Map<String, String> parseEpd(String epd, Board board) {
+
+        int i = parsePosition(epd, board);
+        int length = epd.length();
+
+        board.halfmoveClock = 0;
+        board.fullmoveNumber = 1;
+
+        // Perft suites often keep the FEN clocks before the operations; opcodes never start with a digit.
+        i = skipSpaces(epd, i);
+
+        if (i < length && Character.isDigit(epd.charAt(i))) {
+            int end = tokenEnd(epd, i);
+            board.halfmoveClock = parseNumber(epd, i, end);
+
+            i = skipSpaces(epd, end);
+
+            if (i < length && Character.isDigit(epd.charAt(i))) {
+                end = tokenEnd(epd, i);
+                board.fullmoveNumber = parseNumber(epd, i, end);
+                i = end;
+            }
+        }
+
+        Map<String, String> operations = new LinkedHashMap<>();
+
+        while ((i = skipSpaces(epd, i)) < length) {
+
+            int opcodeEnd = i;
+            while (opcodeEnd < length && epd.charAt(opcodeEnd) != ' ' && epd.charAt(opcodeEnd) != ';') opcodeEnd++;
+
+            // A stray separator, as in the "fen ;D1 20 ;D2 400" layout of perft suites.
+            if (opcodeEnd == i) {
+                i++;
+                continue;
+            }
+
+            String opcode = epd.substring(i, opcodeEnd);
+
+            int start = skipSpaces(epd, opcodeEnd);
+            int end = start;
+            boolean quoted = false;
+
+            while (end < length && (quoted || epd.charAt(end) != ';')) {
+                if (epd.charAt(end) == '"') quoted = !quoted;
+                end++;
+            }
+
+            int operandEnd = end;
+            while (operandEnd > start && epd.charAt(operandEnd - 1) == ' ') operandEnd--;
+
+            if (operandEnd - start >= 2 && epd.charAt(start) == '"' && epd.charAt(operandEnd - 1) == '"') {
+                start++;
+                operandEnd--;
+            }
+
+            String operand = epd.substring(start, operandEnd);
+            operations.put(opcode, operand);
+
+            if (opcode.equals("hmvc")) board.halfmoveClock = parseNumber(operand, 0, operand.length());
+            if (opcode.equals("fmvn")) board.fullmoveNumber = parseNumber(operand, 0, operand.length());
+
+            i = end + 1;
+        }
+
+        return operations;
+    }
+
+    // Only the first field, without touching side to move, castling rights or clocks. The board is cleared first.
+    static void parsePlacement(String fen, Board board) {
+        board.clear();
+        parsePlacement(fen, 0, board);
+        board.key = board.computeKey();
+    }
+
+    private static int parsePosition(String fen, Board board) {
+
+        board.clear();
+
+        int i = parsePlacement(fen, skipSpaces(fen, 0), board);
+        int length = fen.length();
+
+        i = skipSpaces(fen, i);
+
+        if (i >= length || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) throw invalid(fen);
+
+        board.sideToMove = fen.charAt(i++) == 'w' ? Piece.White : Piece.Black;
+        i = skipSpaces(fen, i);
+
+        int rights = 0;
+
+        if (i < length && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                switch (fen.charAt(i)) {
+                    case 'K' -> rights |= Board.WHITE_KINGSIDE;
+                    case 'Q' -> rights |= Board.WHITE_QUEENSIDE;
+                    case 'k' -> rights |= Board.BLACK_KINGSIDE;
+                    case 'q' -> rights |= Board.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen);
+                }
+            }
+        }
+
+        board.castlingRights = rights;
+        i = skipSpaces(fen, i);
+
+        if (i < length && fen.charAt(i) == '-') {
+            board.enPassantSquare = -1;
+            i++;
+        } else if (i + 1 < length && fen.charAt(i) >= 'a' && fen.charAt(i) <= 'h'
+                && fen.charAt(i + 1) == (board.sideToMove == Piece.White ? '6' : '3')) {
+            board.enPassantSquare = ('8' - fen.charAt(i + 1)) * 8 + fen.charAt(i) - 'a';
+            i += 2;
+        } else {
+            throw invalid(fen);
+        }
+
+        board.key = board.computeKey();
+
+        return i;
+    }
+
+    // Eight ranks separated by '/', each covering exactly eight files.
+    private static int parsePlacement(String fen, int i, Board board) {
+
+        int rank = 0, file = 0;
+        int length = fen.length();
+
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+
+            char c = fen.charAt(i);
+
+            if (c == '/') {
+                if (file != 8 || rank == 7) throw invalid(fen);
+                rank++;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) throw invalid(fen);
+            } else {
+                int piece = piece(c);
+                if (piece == 0 || file == 8) throw invalid(fen);
+                board.putPiece(piece, rank * 8 + file++);
+            }
+        }
+
+        if (rank != 7 || file != 8) throw invalid(fen);
+
+        // Move generation and check detection assume exactly one king per side.
+        if (Long.bitCount(board.pieces[Piece.White + Piece.King]) != 1 || Long.bitCount(board.pieces[Piece.Black + Piece.King]) != 1) {
+            throw invalid(fen);
+        }
+
+        return i;
+    }
+
+    static String toFen(Board board) {
+        return write(board, new StringBuilder(90)).toString();
+    }
+
+    // Appends all six fields to out and returns it, so one builder can be reused for many positions.
+    static StringBuilder write(Board board, StringBuilder out) {
+        writePosition(board, out);
+        return out.append(' ').append(board.halfmoveClock).append(' ').append(board.fullmoveNumber);
+    }
+
+    // The four position fields followed by the operations; id and comment operands are quoted.
+    static StringBuilder writeEpd(Board board, Map<String, String> operations, StringBuilder out) {
+
+        writePosition(board, out);
+
+        for (Map.Entry<String, String> operation : operations.entrySet()) {
+
+            String opcode = operation.getKey();
+            boolean quote = opcode.equals("id") || (opcode.length() == 2 && opcode.charAt(0) == 'c' && Character.isDigit(opcode.charAt(1)));
+
+            out.append(' ').append(opcode);
+
+            if (!operation.getValue().isEmpty()) {
+                out.append(' ');
+                if (quote) out.append('"');
+                out.append(operation.getValue());
+                if (quote) out.append('"');
+            }
+            out.append(';');
+        }
+
+        return out;
+    }
+
+    static void writePlacement(int[] squares, StringBuilder out) {
+
+        for (int row = 0; row < 8; row++) {
+
+            if (row > 0) out.append('/');
+
+            int empty = 0;
+
+            for (int square = row * 8; square < row * 8 + 8; square++) {
+                if (squares[square] == 0) {
+                    empty++;
+                } else {
+                    if (empty > 0) out.append((char) ('0' + empty));
+                    empty = 0;
+                    out.append(CHARS[squares[square]]);
+                }
+            }
+
+            if (empty > 0) out.append((char) ('0' + empty));
+        }
+    }
+
+    private static void writePosition(Board board, StringBuilder out) {
+
+        writePlacement(board.squares, out);
+
+        out.append(board.sideToMove == Piece.White ? " w " : " b ");
+
+        int rights = board.castlingRights;
+
+        if (rights == 0) out.append('-');
+        if ((rights & Board.WHITE_KINGSIDE) != 0) out.append('K');
+        if ((rights & Board.WHITE_QUEENSIDE) != 0) out.append('Q');
+        if ((rights & Board.BLACK_KINGSIDE) != 0) out.append('k');
+        if ((rights & Board.BLACK_QUEENSIDE) != 0) out.append('q');
+
+        out.append(' ');
+
+        if (board.enPassantSquare == -1) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + (board.enPassantSquare & 7))).append((char) ('8' - (board.enPassantSquare >> 3)));
+        }
+    }
+
+    private static int piece(char c) {
+        return switch (c) {
+            case 'P' -> Piece.White + Piece.Pawn;
+            case 'N' -> Piece.White + Piece.Knight;
+            case 'B' -> Piece.White + Piece.Bishop;
+            case 'R' -> Piece.White + Piece.Rook;
+            case 'Q' -> Piece.White + Piece.Queen;
+            case 'K' -> Piece.White + Piece.King;
+            case 'p' -> Piece.Black + Piece.Pawn;
+            case 'n' -> Piece.Black + Piece.Knight;
+            case 'b' -> Piece.Black + Piece.Bishop;
+            case 'r' -> Piece.Black + Piece.Rook;
+            case 'q' -> Piece.Black + Piece.Queen;
+            case 'k' -> Piece.Black + Piece.King;
+            default -> 0;
+        };
+    }
+
+    private static int parseNumber(String text, int start, int end) {
+
+        if (start >= end) throw invalid(text);
+
+        int value = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000_000) throw invalid(text);
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    private static int skipSpaces(String text, int i) {
+        while (i < text.length() && text.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    private static int tokenEnd(String text, int i) {
+        while (i < text.length() && text.charAt(i) != ' ') i++;
+        return i;
+    }
+
+    private static IllegalArgumentException invalid(String fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+}
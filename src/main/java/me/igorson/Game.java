@@ -1,751 +1,470 @@
 package me.igorson;
 
-import javax.swing.*;
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Game implements Cloneable {
 
-    int winner, currentMove;
-    private ArrayList<int[]> gamePositionHistory = new ArrayList<>();
+    static final int MAX_PLY = 128;
 
-    private Stack<Move> moveHistory = new Stack<>();
-    private Stack<boolean[]> castleRightsHistory = new Stack<>();
+    // Reasons returned by gameOverReason.
+    static final int ONGOING = 0, CHECKMATE = 1, STALEMATE = 2, THREEFOLD_REPETITION = 3, FIFTY_MOVE_RULE = 4;
 
-    private int movesFromLastMoveOrPawnCapture;
+    int winner, currentMove;
 
-    private ChessBoardWithColumnsAndRows chessboardDisplay;
+    // Side played by the engine, 0 when both sides are entered on the console.
+    private int computerSide;
+    private int computerDepth = 64;
+    private long computerNodes = 2_000_000;
+    private int computerThreads = 1;
+    private TranspositionTable transpositionTable;
+    private PolyglotBook book;
 
-    private int[] squares;
+    private MoveInput input;
+    private GameRenderer renderer;
 
-    public Game(String startingFen, int startingSite, boolean wK, boolean wQ, boolean bK, boolean bQ) {
-        squares = new int[64];
-        loadBoardFromFen(startingFen);
+    private Board board = new Board();
 
-        currentMove = startingSite;
-        movesFromLastMoveOrPawnCapture = 0;
-        castleRightsHistory.push(new boolean[]{wK, wQ, bK, bQ});
+    private int[] squares = board.squares;
 
-        this.chessboardDisplay = new ChessBoardWithColumnsAndRows(this);
+    // One reusable move buffer per ply, allocated the first time that ply is reached.
+    private int[][] moveBuffers = new int[MAX_PLY + 1][];
 
-    }
-
-    void start() {
+    // Legal moves of the position with key legalMovesKey, shared by the move validation and end of game checks,
+    // and for each from square the destinations of those moves.
+    private int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private long[] legalDestinations = new long[64];
+    private int legalMoveCount = -1;
+    private long legalMovesKey;
 
-        while (winner == 0) {
+    // Never touches AWT/Swing or System.in unless the given input and renderer do.
+    Game(String startingFen, int startingSite, boolean wK, boolean wQ, boolean bK, boolean bQ, MoveInput input, GameRenderer renderer) {
+        this.input = input;
+        this.renderer = renderer;
 
-            SwingUtilities.invokeLater(() -> chessboardDisplay.reloadGui());
+        loadBoardFromFen(startingFen);
 
-            Move move = null;
+        currentMove = startingSite;
+        board.sideToMove = startingSite;
+        board.castlingRights = (wK ? Board.WHITE_KINGSIDE : 0) | (wQ ? Board.WHITE_QUEENSIDE : 0)
+                | (bK ? Board.BLACK_KINGSIDE : 0) | (bQ ? Board.BLACK_QUEENSIDE : 0);
+        board.key = board.computeKey();
+    }
 
-            do {
+    // A game starting from a complete six-field FEN, including the en passant square and both clocks.
+    Game(String fen, MoveInput input, GameRenderer renderer) {
+        this.input = input;
+        this.renderer = renderer;
 
-                if (move != null && !checkIfMoveIsPossible(move)) {
+        Fen.parse(fen, board);
 
-                    System.out.println("This move is not possible! Try other one.");
-                }
+        currentMove = board.sideToMove;
+    }
 
-                move = readInputMove();
+    // A console game shown in the Swing board, which is only handed the game once it is fully set up.
+    public static Game console(String startingFen, int startingSite, boolean wK, boolean wQ, boolean bK, boolean bQ) {
 
-            } while (!checkIfMoveIsPossible(move));
+        Game game = new Game(startingFen, startingSite, wK, wQ, bK, bQ, new ConsoleInput(), GameRenderer.NONE);
+        game.renderer = new ChessBoardWithColumnsAndRows(game);
+        return game;
+    }
 
-            if (getPiece(squares[move.from]) != 1 || getPiece(squares[move.to]) == 0) {
-                movesFromLastMoveOrPawnCapture += 1;
-            } else {
-                movesFromLastMoveOrPawnCapture = 0;
-            }
+    static Game headless(String startingFen, int startingSite, boolean wK, boolean wQ, boolean bK, boolean bQ) {
+        return new Game(startingFen, startingSite, wK, wQ, bK, bQ, MoveInput.NONE, GameRenderer.NONE);
+    }
 
-            if (checkIfIsPromotion(move)) {
-                makeMove(new Move(move.from, move.to, 2), false);
-            } else {
-                makeMove(move, false);
-            }
+    static Game headless(String fen) {
+        return new Game(fen, MoveInput.NONE, GameRenderer.NONE);
+    }
 
-            if (checkFiftyMoveRule()) {
-                winner = 1;
+    void start() {
 
-                System.out.println("Draw !");
+        while (winner == 0) {
 
-                SwingUtilities.invokeLater(() -> chessboardDisplay.reloadGui());
+            renderer.render(this);
 
-                continue;
-            }
+            if (currentMove == computerSide) {
 
-            if (checkStaleMate()) {
+                makeMove(computerMove(), true);
 
-                winner = 1;
+            } else {
 
-                System.out.println("Stalemate!");
+                Move move = null;
 
-                SwingUtilities.invokeLater(() -> chessboardDisplay.reloadGui());
+                do {
 
-                continue;
-            }
+                    if (move != null && !checkIfMoveIsPossible(move)) {
 
+                        System.out.println("This move is not possible! Try other one.");
+                    }
 
-            if (checkCheckMate()) {
+                    move = readInputMove();
 
-                winner = currentMove == 8 ? 16 : 8;
+                } while (!checkIfMoveIsPossible(move));
 
-                SwingUtilities.invokeLater(() -> chessboardDisplay.reloadGui());
+                if (checkIfIsPromotion(move)) {
+                    makeMove(new Move(move.from, move.to, 2), false);
+                } else {
+                    makeMove(move, false);
+                }
+            }
 
-                System.out.println((winner == 8 ? "White" : "Black") + " has won the game!");
+            switch (gameOverReason()) {
+                case THREEFOLD_REPETITION -> System.out.println("Draw by threefold repetition!");
+                case FIFTY_MOVE_RULE -> System.out.println("Draw !");
+                case STALEMATE -> System.out.println("Stalemate!");
+                case CHECKMATE -> System.out.println((winner == 8 ? "White" : "Black") + " has won the game!");
+                default -> {
+                    continue;
+                }
             }
 
+            renderer.render(this);
         }
 
     }
 
-    private boolean checkIfIsPromotion(Move move) {
-
-        for (Move m : calculateAllPossibleMoves(currentMove, false)) {
-            if (m.pieceToPromote != 0) {
-                return true;
-            }
-        }
-        return false;
-    }
+    // Sets winner when the game is over, 1 for a draw and otherwise the winning color.
+    int gameOverReason() {
 
-    private boolean checkIfMoveIsPossible(Move move) {
+        int reason = checkThreefoldRepetition() ? THREEFOLD_REPETITION
+                : checkFiftyMoveRule() ? FIFTY_MOVE_RULE
+                : checkStaleMate() ? STALEMATE
+                : checkCheckMate() ? CHECKMATE
+                : ONGOING;
 
-        for (Move m : calculateAllPossibleMoves(currentMove, false)) {
-            if (m.from == move.from && m.to == move.to && !isKingChecked(move, false)) {
-                return true;
-            }
+        if (reason == CHECKMATE) {
+            winner = currentMove == 8 ? 16 : 8;
+        } else if (reason != ONGOING) {
+            winner = 1;
         }
-        return false;
+        return reason;
     }
 
-    private boolean checkFiftyMoveRule() {
+    void setComputerSide(int side, int maxDepth, long maxNodes) {
+        computerSide = side;
+        computerDepth = maxDepth;
+        computerNodes = maxNodes;
+    }
 
-        return movesFromLastMoveOrPawnCapture == 50;
+    void setComputerThreads(int threads) {
+        computerThreads = threads;
     }
 
-    private boolean checkStaleMate() {
-        if (checkCheckMate()) return false;
-        for (Move m : calculateAllPossibleMoves(currentMove, false)) {
-            if (!isKingChecked(m, false)) {
-                return false;
-            }
-        }
-        return true;
+    // The engine plays from the book while it has a move for the position.
+    void setBook(PolyglotBook book) {
+        this.book = book;
     }
 
-    private boolean checkCheckMate() {
+    private Move computerMove() {
 
-        for (int i = 0; i <= 63; i++) {
-            if (getPiece(squares[i]) == 6) {
-                if (!isKingChecked(new Move(i, i), false)) {
-                    return false;
-                }
-            }
-        }
+        int bookMove = book == null ? 0 : book.pick(board, ThreadLocalRandom.current());
 
-        for (Move m : calculateAllPossibleMoves(currentMove, false)) {
-            if (!isKingChecked(m, false)) {
-                return false;
-            }
+        if (bookMove != 0) {
+            System.out.println("Computer plays " + Move.toUci(bookMove) + " from the book");
+            return new Move(bookMove);
         }
-        return true;
-    }
-
-    long perft(int depth) {
 
-        if (depth == 0) {
-            return 1;
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(64);
         }
 
-        long nodes = 0;
-
-        List<Move> moves = calculateAllPossibleMoves(currentMove, false);
-
-        for (Move move : moves) {
-
-            if (isKingChecked(move, false)) continue;
+        LazySmpSearch search = new LazySmpSearch(transpositionTable, computerThreads);
+        search.setIterationListener(result -> System.out.println("info " + result));
 
-            makeMove(move, true);
+        SearchResult result = search.search(board, computerDepth, computerNodes);
 
-            nodes += perft(depth - 1);
+        System.out.println("Computer plays " + Move.toUci(result.bestMove));
 
-            undoMove();
-        }
-
-        return nodes;
+        return new Move(result.bestMove);
     }
 
+    private boolean checkIfIsPromotion(Move move) {
 
-    private boolean isKingChecked(Move m, boolean skipKing) {
-
-        makeMove(m, true);
-
-        for (Move move : calculateAllPossibleMoves(currentMove, skipKing)) {
+        int count = legalMoveCount();
 
-            if (getPiece(squares[move.to]) == Piece.King) {
-                undoMove();
+        for (int i = 0; i < count; i++) {
+            int m = legalMoves[i];
+            if (Move.from(m) == move.from && Move.to(m) == move.to && Move.promotion(m) != 0) {
                 return true;
             }
         }
-        undoMove();
         return false;
     }
 
-    Move readInputMove() {
-        char[] letters = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H'};
-
-        String input, from, to;
-        int fromSquare, toSquare;
-
-        while (true) {
-
-            System.out.println("Enter move. (Example: A1 A2).");
-            Scanner sc = new Scanner(System.in);
-            input = sc.nextLine();
-            if (!input.matches("([A-H][1-8]) ([A-H][1-8])")) {
-                System.out.println("Entered incorrect move. Try again.");
-                continue;
-            }
-            from = input.split(" ")[0];
-            to = input.split(" ")[1];
-            break;
-        }
+    private boolean checkIfMoveIsPossible(Move move) {
 
-        fromSquare = (8 - (Integer.parseInt(String.valueOf(from.charAt(1))))) * 8 + indexOf(letters, from.charAt(0));
-        toSquare = (8 - (Integer.parseInt(String.valueOf(to.charAt(1))))) * 8 + indexOf(letters, to.charAt(0));
+        legalMoveCount();
 
-        return new Move(fromSquare, toSquare);
+        return (legalDestinations[move.from] & (1L << move.to)) != 0;
     }
 
+    private boolean checkFiftyMoveRule() {
 
-    private void undoMove() {
-
-        int[] gameToUndo = gamePositionHistory.get(gamePositionHistory.size() - 1);
-        gamePositionHistory.remove(gamePositionHistory.size() - 1);
-
-        for (int i = 0; i <= 63; i++) {
+        return board.halfmoveClock >= 100;
+    }
 
-            squares[i] = gameToUndo[i];
+    private boolean checkThreefoldRepetition() {
 
-        }
+        return board.isThreefoldRepetition();
+    }
 
-        currentMove = currentMove == 8 ? 16 : 8;
+    private boolean checkStaleMate() {
 
-        moveHistory.pop();
-        castleRightsHistory.pop();
+        return legalMoveCount() == 0 && !board.isInCheck(currentMove);
     }
 
-    private void makeMove(Move move, boolean isPerfTest) {
-
-        boolean whiteKingsideCastlingRights, whiteQueensideCastlingRights, blackKingsideCastlingRights, blackQueensideCastlingRights;
+    private boolean checkCheckMate() {
 
-        whiteKingsideCastlingRights = castleRightsHistory.peek()[0];
-        whiteQueensideCastlingRights = castleRightsHistory.peek()[1];
-        blackKingsideCastlingRights = castleRightsHistory.peek()[2];
-        blackQueensideCastlingRights = castleRightsHistory.peek()[3];
+        return legalMoveCount() == 0 && board.isInCheck(currentMove);
+    }
 
+    // Generates the legal moves only when the position changed since the last call. Comparing keys also catches
+    // moves made and taken back directly on the board, as the search does.
+    private int legalMoveCount() {
 
-        int[] lastBoardPosition = new int[64];
+        if (legalMoveCount < 0 || legalMovesKey != board.key) {
 
-        for (int i = 0; i <= 63; i++) {
-            lastBoardPosition[i] = squares[i];
-        }
-        gamePositionHistory.add(lastBoardPosition);
+            legalMoveCount = MoveGenerator.generateLegalMoves(board, legalMoves, 0);
+            legalMovesKey = board.key;
 
-        int multiplayer = currentMove == 8 ? 1 : -1;
+            Arrays.fill(legalDestinations, 0);
 
-        if (getPiece(squares[move.from]) == Piece.Pawn) {
-            if ((float) Math.abs(move.from - move.to) % 8 != 0 && squares[move.to] == 0) {
-                squares[move.to + 8 * multiplayer] = 0;
+            for (int i = 0; i < legalMoveCount; i++) {
+                legalDestinations[Move.from(legalMoves[i])] |= 1L << Move.to(legalMoves[i]);
             }
         }
+        return legalMoveCount;
+    }
 
-        if (getPiece(squares[move.from]) == Piece.King) {
-
-            if (currentMove == Piece.White) {
-                whiteKingsideCastlingRights = false;
-                whiteQueensideCastlingRights = false;
-
+    long perft(int depth) {
 
-            } else {
-                blackKingsideCastlingRights = false;
-                blackQueensideCastlingRights = false;
+        PerftEvent event = new PerftEvent();
+        event.begin();
 
-            }
+        long nodes = perft(depth, 0);
 
-            if (move.to - move.from == 2) {
+        perftDone(event, "serial", depth, nodes);
+        return nodes;
+    }
 
-                squares[move.from + 1] = 4 + currentMove;
-                squares[move.from + 3] = 0;
+    // Recorded for every perft started through Game, but not for the parts ParallelPerft splits a run into.
+    private void perftDone(PerftEvent event, String kind, int depth, long nodes) {
 
-            } else {
-                if (move.from - move.to == 2) {
+        if (Stats.on()) Stats.perftNodes.add(nodes);
 
-                    squares[move.from - 1] = 4 + currentMove;
-                    squares[move.from - 4] = 0;
-                }
-            }
+        if (event.shouldCommit()) {
+            event.fen = getFen();
+            event.depth = depth;
+            event.nodes = nodes;
+            event.kind = kind;
+            event.commit();
         }
+    }
 
-        if (getPiece(squares[move.from]) == Piece.Rook) {
-
-            int file = move.from + 8 % 8 + 1;
-
-            if (currentMove == Piece.White) {
-                if (file == 1) {
-                    whiteQueensideCastlingRights = false;
-                }
-                if (file == 8) {
-                    whiteKingsideCastlingRights = false;
-                }
+    long perft(int depth, int ply) {
 
-            } else {
-                if (file == 1) {
-                    blackQueensideCastlingRights = false;
-                }
-                if (file == 8) {
-                    blackKingsideCastlingRights = false;
-                }
-            }
+        if (depth == 0) {
+            return 1;
         }
 
-        if (getPiece(squares[move.to]) == Piece.Rook) {
-
-            int file = move.to + 8 % 8 + 1;
-
-            if (currentMove == Piece.Black) {
-                if (file == 1) {
-                    whiteQueensideCastlingRights = false;
-                }
-                if (file == 8) {
-                    whiteKingsideCastlingRights = false;
-                }
-
-            }
-
-            if (currentMove == Piece.White) {
-
-                if (file == 1) {
-                    blackQueensideCastlingRights = false;
-                }
-                if (file == 8) {
-                    blackKingsideCastlingRights = false;
-                }
+        long nodes = 0;
 
+        int[] moves = moveBuffer(ply);
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
 
-            }
+        if (depth == 1) {
+            return count;
         }
 
-        boolean promotion = move.pieceToPromote != 0;
+        for (int i = 0; i < count; i++) {
 
-        if (isPerfTest) {
-            if (promotion) {
-                squares[move.to] = move.pieceToPromote + currentMove;
-            } else {
-                squares[move.to] = squares[move.from];
-            }
-        } else {
-            if (promotion) {
-                int chosenPiece = 0;
-
-                while (chosenPiece == 0) {
-                    System.out.println("Enter piece you want promote to. " + (currentMove == 8 ? "(N, B, R, Q)" : "(n, b, r, q)"));
-                    Scanner sc = new Scanner(System.in);
-                    String input = sc.nextLine();
-                    input = input.toLowerCase();
-                    if (input.equals("n") || input.equals("b") || input.equals("r") || input.equals("q")) {
-                        char inputChar = input.charAt(0);
-                        switch (inputChar) {
-                            case 'n' -> chosenPiece = Piece.Knight;
-                            case 'b' -> chosenPiece = Piece.Bishop;
-                            case 'r' -> chosenPiece = Piece.Rook;
-                            case 'q' -> chosenPiece = Piece.Queen;
-                        }
-                    }
-                }
+            board.makeMove(moves[i]);
 
-                squares[move.to] = chosenPiece + currentMove;
-            } else {
-                squares[move.to] = squares[move.from];
-
-            }
+            nodes += perft(depth - 1, ply + 1);
 
+            board.undoMove();
         }
 
-        squares[move.from] = 0;
-
-        if (move.from == move.to) {
-            squares[move.from] = 6 + currentMove;
-        }
-
-        currentMove = currentMove == 8 ? 16 : 8;
-
-        moveHistory.push(move);
-
-        castleRightsHistory.push(new boolean[]{whiteKingsideCastlingRights, whiteQueensideCastlingRights, blackKingsideCastlingRights, blackQueensideCastlingRights});
-    }
-
-    Move getLastMove() {
-        if (moveHistory.empty()) {
-            return null;
-        }
-        return moveHistory.peek();
+        return nodes;
     }
 
-    ArrayList<Move> calculateAllPossibleMoves(int site, boolean skipKing) {
+    long hashedPerft(int depth, int tableSizeMb) {
 
-        ArrayList<Move> listOfAllPossibleMoves = new ArrayList<>();
+        PerftEvent event = new PerftEvent();
+        event.begin();
 
-        for (int i = 0; i <= 63; i++) {
+        long nodes = perft(depth, 0, new PerftTable(tableSizeMb));
 
-            if (getColor(squares[i]) != site || squares[i] == 0) continue;
+        perftDone(event, "hashed", depth, nodes);
+        return nodes;
+    }
 
-            int color = getColor(squares[i]);
-            int piece = squares[i] - color;
+    private long perft(int depth, int ply, PerftTable table) {
 
-            int multiplayer = color == 8 ? 1 : -1;
-            int add = color == 8 ? 0 : 1;
+        if (depth <= 1) {
+            return perft(depth, ply);
+        }
 
-            int rank = i / 8 + 1;
+        long cached = table.probe(board.key, depth);
 
-            int distanceFromRight = rank * 8 - 1 - i;
-            int distanceFromLeft = i - ((rank - 1) * 8);
+        if (cached >= 0) {
+            return cached;
+        }
 
-            int distanceFromTop = i / 8;
-            int distanceFromDown = 7 - distanceFromTop;
+        long nodes = 0;
 
-            int file, destinationFile;
+        int[] moves = moveBuffer(ply);
+        int count = MoveGenerator.generateLegalMoves(board, moves, 0);
 
-            file = (i + 8) % 8 + 1;
+        for (int i = 0; i < count; i++) {
 
-            switch (piece) {
-                case Piece.Pawn -> {
+            board.makeMove(moves[i]);
 
-                    ArrayList<Move> movesToAdd = new ArrayList<>();
+            nodes += perft(depth - 1, ply + 1, table);
 
-                    if (rank != 8 && rank != 1) {
+            board.undoMove();
+        }
 
-                        if (squares[i - (8 * multiplayer)] == 0) {
-                            movesToAdd.add(new Move(i, i - (8 * multiplayer)));
+        table.store(board.key, depth, nodes);
 
-                            if (8 - i / 8 == color - 8 + add + (2 * multiplayer)) {
-                                if (squares[i - (16 * multiplayer)] == 0) {
-                                    movesToAdd.add(new Move(i, i - (16 * multiplayer)));
-                                }
-                            }
-                        }
+        return nodes;
+    }
 
-                        if (i - (9 * multiplayer) >= 0 && i - (9 * multiplayer) < 64) {
-                            if (squares[i - (9 * multiplayer)] != 0 && getColor(squares[i - (9 * multiplayer)]) != currentMove) {
+    long parallelPerft(int depth, int splitDepth) {
 
+        PerftEvent event = new PerftEvent();
+        event.begin();
 
-                                destinationFile = (i - (9 * multiplayer) + 8) % 8 + 1;
-                                if (Math.abs(destinationFile - file) <= 2) {
-                                    movesToAdd.add(new Move(i, i - (9 * multiplayer)));
+        long nodes = ParallelPerft.perft(this, depth, splitDepth, ForkJoinPool.commonPool());
 
-                                }
-                            }
-                        }
+        perftDone(event, "parallel", depth, nodes);
+        return nodes;
+    }
 
-                        if (i - (7 * multiplayer) >= 0 && i - (7 * multiplayer) < 64) {
-                            if (squares[i - (7 * multiplayer)] != 0 && getColor(squares[i - (7 * multiplayer)]) != currentMove) {
+    int[] moveBuffer(int ply) {
 
-                                destinationFile = (i - (7 * multiplayer) + 8) % 8 + 1;
-                                if (Math.abs(destinationFile - file) <= 2) {
+        int[] buffer = moveBuffers[ply];
 
-                                    movesToAdd.add(new Move(i, i - (7 * multiplayer)));
+        if (buffer == null) {
+            buffer = new int[MoveGenerator.MAX_MOVES];
+            moveBuffers[ply] = buffer;
+        }
+        return buffer;
+    }
 
-                                }
-                            }
-                        }
 
+    boolean isKingChecked(Move m) {
 
-                        if (getLastMove() != null) {
-                            if (8 - i / 8 == color - 8 + add + (5 * multiplayer)) {
-                                if (getLastMove().to == i - 1) {
-                                    if (Math.abs(getLastMove().to - getLastMove().from) == 16 && getPiece(squares[getLastMove().to]) == Piece.Pawn) {
-                                        if (currentMove == 8) {
+        long start = Stats.on() ? System.nanoTime() : 0;
 
-                                            destinationFile = ((i - 9) + 8) % 8 + 1;
-                                            if (Math.abs(destinationFile - file) <= 2) {
+        int side = currentMove;
 
-                                                movesToAdd.add(new Move(i, i - 9));
-                                            }
-                                        } else {
-                                            destinationFile = ((i + 7) + 8) % 8 + 1;
-                                            if (Math.abs(destinationFile - file) <= 2) {
+        board.makeMove(m.encode());
 
-                                                movesToAdd.add(new Move(i, i + 7));
-                                            }
-                                        }
-                                    }
-                                }
+        boolean checked = board.isInCheck(side);
 
-                                if (getLastMove().to == i + 1) {
-                                    if (Math.abs(getLastMove().to - getLastMove().from) == 16 && getPiece(squares[getLastMove().to]) == Piece.Pawn) {
-                                        if (currentMove == 8) {
+        board.undoMove();
 
-                                            destinationFile = ((i - 7) + 8) % 8 + 1;
-                                            if (Math.abs(destinationFile - file) <= 2) {
-                                                movesToAdd.add(new Move(i, i - 7));
-                                            }
+        if (start != 0) Stats.kingChecks.record(System.nanoTime() - start);
 
-                                        } else {
-                                            destinationFile = ((i + 9) + 8) % 8 + 1;
-                                            if (Math.abs(destinationFile - file) <= 2) {
-                                                movesToAdd.add(new Move(i, i + 9));
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
+        return checked;
+    }
 
-                        for (Move move : movesToAdd) {
+    Move readInputMove() {
+        return input.readMove();
+    }
 
-                            int destinationRank = move.to / 8 + 1;
 
-                            if (destinationRank == 1 || destinationRank == 8) {
+    int generateLegalMoves(int[] moves) {
 
-                                for (int b = 2; b <= 5; b++) {
-                                    listOfAllPossibleMoves.add(new Move(move.from, move.to, b));
-                                }
-                            } else {
-                                listOfAllPossibleMoves.add(move);
-                            }
-                        }
-                    }
-                }
-                case Piece.Bishop, Piece.Rook, Piece.Queen -> {
-                    int startingIndex = 0, endingIndex = 7;
-                    endingIndex = piece == 2 ? 3 : endingIndex;
-                    startingIndex = piece == 4 ? 4 : startingIndex;
-                    int[] offsets = {7, -9, -7, 9, 1, -1, 8, -8};
-                    for (int o = startingIndex; o <= endingIndex; o++) {
-                        int offset = offsets[o];
-                        int distance = switch (offset) {
-                            case -7, 9 ->
-                                    offset == -7 ? Math.min(distanceFromRight, distanceFromTop) : Math.min(distanceFromRight, distanceFromDown);
-                            case 7, -9 ->
-                                    offset == 7 ? Math.min(distanceFromLeft, distanceFromDown) : Math.min(distanceFromLeft, distanceFromTop);
-                            case 1 -> distanceFromRight;
-                            case -1 -> distanceFromLeft;
-                            case 8 -> distanceFromDown;
-                            case -8 -> distanceFromTop;
-                            default -> 0;
-                        };
-
-                        for (int n = 1; n <= distance; n++) {
-
-                            if (i + offset * n > 63 || i + offset * n < 0) continue;
-
-                            if (squares[i + offset * n] == 0) {
-                                listOfAllPossibleMoves.add(new Move(i, i + offset * n));
-                                continue;
-                            }
-                            if (getColor(squares[i + offset * n]) == currentMove) {
-                                break;
-                            }
-                            if (getColor(squares[i + offset * n]) != currentMove) {
-                                listOfAllPossibleMoves.add(new Move(i, i + offset * n));
-                                break;
-                            }
-
-                        }
-                    }
-                }
-                case Piece.Knight -> {
-                    int[] knightOffsets = {-10, -17, -15, -6, 10, 17, 15, 6};
-                    for (int offset : knightOffsets) {
+        return MoveGenerator.generateLegalMoves(board, moves, 0);
+    }
 
-                        destinationFile = ((i + offset) + 8) % 8 + 1;
+    int generateLegalCaptures(int[] moves) {
 
-                        if (i + offset > 63 || i + offset < 0) continue;
+        return MoveGenerator.generateLegalCaptures(board, moves, 0);
+    }
 
-                        if (getColor(squares[i + offset]) == currentMove && squares[i + offset] != 0) continue;
+    void makeMove(int move) {
 
-                        if (Math.abs(destinationFile - file) > 2) continue;
+        board.makeMove(move);
 
-                        listOfAllPossibleMoves.add(new Move(i, i + offset));
-                    }
-                }
-                case Piece.King -> {
-                    if (skipKing) continue;
-                    int[] kingOffsets = {-1, 1, -8, 8, 7, -7, 9, -9};
-                    for (int offset : kingOffsets) {
+        currentMove = board.sideToMove;
+    }
 
-                        destinationFile = ((i + offset) + 8) % 8 + 1;
+    void undoMove() {
 
-                        if (i + offset > 63 || i + offset < 0) continue;
+        board.undoMove();
 
-                        if (getPiece(squares[i + offset]) == Piece.King) continue;
+        currentMove = board.sideToMove;
+    }
 
-                        if (Math.abs(destinationFile - file) > 2) continue;
+    private void makeMove(Move move, boolean isPerfTest) {
 
-                        if (squares[i + offset] == 0) {
-                            listOfAllPossibleMoves.add(new Move(i, i + offset));
-                            continue;
-                        }
-                        if (getColor(squares[i + offset]) == currentMove) {
-                            continue;
-                        } else {
-                            listOfAllPossibleMoves.add(new Move(i, i + offset));
-                        }
-                    }
-                    if (!isKingChecked(new Move(i, i), true)) {
-
-                        if (getColor(squares[i]) == Piece.White) {
-                            if (castleRightsHistory.peek()[0]) {
-
-                                if (squares[i + 1] == 0 && squares[i + 2] == 0) {
-                                    if (!isKingChecked(new Move(i, i + 1), false) && !isKingChecked(new Move(i, i + 2), false)) {
-                                        listOfAllPossibleMoves.add(new Move(i, i + 2));
-                                    }
-                                }
-                            }
-
-                            if (castleRightsHistory.peek()[1]) {
-                                if (squares[i - 1] == 0 && squares[i - 2] == 0 && squares[i - 3] == 0) {
-                                    if (!isKingChecked(new Move(i, i - 1), false) && !isKingChecked(new Move(i, i - 2), false)) {
-                                        listOfAllPossibleMoves.add(new Move(i, i - 2));
-                                    }
-                                }
-                            }
-                        } else {
-                            if (castleRightsHistory.peek()[2]) {
-                                if (squares[i + 1] == 0 && squares[i + 2] == 0) {
-                                    if (!isKingChecked(new Move(i, i + 1), false) && !isKingChecked(new Move(i, i + 2), false)) {
-                                        listOfAllPossibleMoves.add(new Move(i, i + 2));
-                                    }
-                                }
-                            }
-
-                            if (castleRightsHistory.peek()[3]) {
-                                if (squares[i - 1] == 0 && squares[i - 2] == 0 && squares[i - 3] == 0) {
-                                    if (!isKingChecked(new Move(i, i - 1), false) && !isKingChecked(new Move(i, i - 2), false)) {
-                                        listOfAllPossibleMoves.add(new Move(i, i - 2));
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        if (!isPerfTest && move.pieceToPromote != 0) {
+            move = new Move(move.from, move.to, input.readPromotionPiece(currentMove));
         }
 
-        ArrayList<Move> listOfAllPossibleMovesAfterCheck = new ArrayList<>();
-
-        int[] kingOffsets = {-1, 1, -8, 8, 7, -7, 9, -9};
-
-        for (Move move : listOfAllPossibleMoves) {
-
-            if (getPiece(squares[move.from]) != Piece.King) {
-                listOfAllPossibleMovesAfterCheck.add(move);
-                continue;
-            }
-
-            makeMove(move, true);
-
-            boolean isKingTouchingKing = false;
-
-            int file = (move.to + 8) % 8 + 1;
-
-            for (int i : kingOffsets) {
-
-                int destinationFile = (move.to + i + 8) % 8 + 1;
-
-                if (move.to + i < 0 || move.to + i > 63) continue;
-                if (Math.abs(destinationFile - file) >= 7) continue;
-                if (getPiece(squares[move.to + i]) == Piece.King) {
-                    isKingTouchingKing = true;
-                }
+        board.makeMove(move.encode());
 
-            }
-
-            undoMove();
-
-            if (!isKingTouchingKing) {
-                listOfAllPossibleMovesAfterCheck.add(move);
-            }
+        currentMove = board.sideToMove;
+    }
 
-        }
+    Move getLastMove() {
+        int move = board.lastMove();
 
-        return listOfAllPossibleMovesAfterCheck;
+        return move == 0 ? null : new Move(move);
     }
 
+    ArrayList<Move> calculateAllPossibleMoves(int site, boolean skipKing) {
 
-    private void loadBoardFromFen(String fen) {
-
-        int squareToSet = 0;
+        long start = Stats.on() ? System.nanoTime() : 0;
 
-        fen = fen.replaceAll("/", "");
-        for (int i = 0; i < fen.length(); i++) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
 
-            if (Character.isDigit(fen.charAt(i))) {
-                squareToSet = squareToSet + Character.getNumericValue(fen.charAt(i));
-                continue;
-            }
-            int color = Character.isLowerCase(fen.charAt(i)) ? Piece.Black : Piece.White;
-
-            switch (Character.toLowerCase(fen.charAt(i))) {
-                case 'p' -> squares[squareToSet] = Piece.Pawn + color;
-                case 'n' -> squares[squareToSet] = Piece.Knight + color;
-                case 'b' -> squares[squareToSet] = Piece.Bishop + color;
-                case 'r' -> squares[squareToSet] = Piece.Rook + color;
-                case 'q' -> squares[squareToSet] = Piece.Queen + color;
-                case 'k' -> squares[squareToSet] = Piece.King + color;
-            }
-            squareToSet += 1;
-        }
+        ArrayList<Move> result = toMoveList(moves, MoveGenerator.generatePseudoLegalMoves(board, site, skipKing, moves, 0));
 
+        if (start != 0) Stats.possibleMoves.record(System.nanoTime() - start);
 
+        return result;
     }
 
-    private static String generateFen(int[] board) {
-
-        StringBuilder result = new StringBuilder();
 
-        if (board.length != 64) return null;
-
-        for (int i = 0; i <= 63; i++) {
+    ArrayList<Move> calculateAllLegalMoves() {
 
-            char addToFen = 'A';
+        long start = Stats.on() ? System.nanoTime() : 0;
 
-            int piece = board[i] - ((float) board[i] / 8 > 2 ? Piece.Black : Piece.White);
+        ArrayList<Move> result = toMoveList(legalMoves, legalMoveCount());
 
-            if (board[i] == 0) piece = 0;
+        if (start != 0) Stats.legalMoves.record(System.nanoTime() - start);
 
+        return result;
+    }
 
-            switch (piece) {
-                case Piece.Pawn -> addToFen = 'p';
-                case Piece.Knight -> addToFen = 'n';
-                case Piece.Bishop -> addToFen = 'b';
-                case Piece.Rook -> addToFen = 'r';
-                case Piece.Queen -> addToFen = 'q';
-                case Piece.King -> addToFen = 'k';
-                case 0 -> addToFen = 'M';
-            }
-
-            addToFen = ((float) board[i] / 8 > 2 ? Piece.Black : Piece.White) == Piece.White ? Character.toUpperCase(addToFen) : addToFen;
-
-            result.append(addToFen);
+    private static ArrayList<Move> toMoveList(int[] moves, int count) {
 
-            if ((float) (i + 1) % 8 == 0.0f && i != 63) result.append("/");
+        ArrayList<Move> list = new ArrayList<>(count);
 
+        for (int i = 0; i < count; i++) {
+            list.add(new Move(moves[i]));
         }
+        return list;
+    }
 
+    final void loadBoardFromFen(String fen) {
 
-        for (String a : generateFen(result.toString()).split("M")) {
-
-            if (Objects.equals(a, "")) continue;
+        Fen.parsePlacement(fen, board);
+    }
 
-            int b = Integer.parseInt(a);
+    static String generateFen(int[] board) {
 
-            StringBuilder c = new StringBuilder();
+        if (board.length != 64) return null;
 
-            c.append("M".repeat(Math.max(0, b)));
+        StringBuilder result = new StringBuilder(72);
 
-            result = new StringBuilder(result.toString().replaceFirst(c.toString(), String.valueOf(c.length())));
-
-        }
+        Fen.writePlacement(board, result);
 
         return result.toString();
     }
@@ -759,37 +478,41 @@ public class Game implements Cloneable {
     }
 
 
-    private static int indexOf(char[] arr, char val) {
-        return IntStream.range(0, arr.length).filter(i -> arr[i] == val).findFirst().orElse(-1);
-    }
-
-    private static String generateFen(String s) {
 
-        StringBuilder result = new StringBuilder();
-
-
-        for (int i = 0; i < s.length(); i++) {
-
-            // Counting occurrences of s[i]
-            int count = 1;
-            while (i + 1 < s.length()
-                    && s.charAt(i)
-                    == s.charAt(i + 1)) {
-                i++;
-                count++;
-            }
-
-            if (s.charAt(i) == 'M') {
-                result.append(s.charAt(i)).append(count);
-            }
-        }
+    Board getBoard() {
+        return board;
+    }
 
-        return result.toString();
+    String getFen() {
+        return Fen.toFen(board);
+    }
 
+    long getHashKey() {
+        return board.key;
     }
 
     int[] getSquares() {
         return this.squares;
     }
 
+    // A copy of the position with its own board and move buffers but no input or renderer, so it can be searched on another thread.
+    @Override
+    public Game clone() {
+        try {
+            Game copy = (Game) super.clone();
+            copy.board = new Board(board);
+            copy.squares = copy.board.squares;
+            copy.moveBuffers = new int[MAX_PLY + 1][];
+            copy.legalMoves = new int[MoveGenerator.MAX_MOVES];
+            copy.legalDestinations = new long[64];
+            copy.legalMoveCount = -1;
+            copy.input = MoveInput.NONE;
+            copy.renderer = GameRenderer.NONE;
+            copy.transpositionTable = null;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
 }
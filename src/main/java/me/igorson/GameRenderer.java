@@ -0,0 +1,10 @@
+package me.igorson;
+
+interface GameRenderer {
+
+    GameRenderer NONE = game -> {
+    };
+
+    // Called whenever the position or the result of the game changed.
+    void render(Game game);
+}
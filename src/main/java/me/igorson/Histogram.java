@@ -0,0 +1,56 @@
+package me.igorson;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts values in power of two buckets, cheap enough to record nanosecond latencies from several threads.
+final class Histogram {
+
+    // Bucket i holds values below 2^i and at least 2^(i - 1); bucket 0 holds zeros and negative values.
+    private final LongAdder[] buckets = new LongAdder[64];
+    private final LongAdder sum = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long value) {
+        buckets[value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value)].increment();
+        sum.add(value);
+    }
+
+    long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    // The upper bound of the bucket holding the given fraction of the values, e.g. 0.99 for the 99th percentile.
+    long percentile(double fraction) {
+
+        long count = count();
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank && seen > 0) return i == 0 ? 0 : (1L << i) - 1;
+        }
+        return 0;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+    }
+}
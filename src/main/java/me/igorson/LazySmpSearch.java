@@ -0,0 +1,105 @@
+package me.igorson;
+
+import java.util.function.Consumer;
+
+final class LazySmpSearch {
+
+    private final TranspositionTable table;
+    private final int threads;
+
+    private volatile Search[] running = new Search[0];
+    private volatile boolean stopped;
+
+    private Consumer<SearchResult> iterationListener = result -> {
+    };
+
+    LazySmpSearch(TranspositionTable table, int threads) {
+        this.table = table;
+        this.threads = Math.max(1, threads);
+    }
+
+    void setIterationListener(Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    // Every thread searches its own copy of the position and they only share the transposition table.
+    // The first thread's result is returned, with the node count of all threads.
+    SearchResult search(Board board, int maxDepth, long maxNodes) {
+        return search(board, maxDepth, maxNodes, 0);
+    }
+
+    // Only the first thread watches the node and time limits; the helpers are stopped when it returns.
+    SearchResult search(Board board, int maxDepth, long maxNodes, long maxMillis) {
+
+        table.newSearch();
+
+        Search[] searches = new Search[threads];
+
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(new Board(board), table);
+            searches[i].firstDepth = 1 + (i & 1);
+        }
+
+        running = searches;
+
+        // A stop that arrived before the searches existed.
+        if (stopped) {
+            for (Search search : searches) {
+                search.stop();
+            }
+        }
+
+        Search main = searches[0];
+        main.setIterationListener(result -> iterationListener.accept(withTotalNodes(result, searches)));
+
+        Thread[] helpers = new Thread[threads - 1];
+
+        for (int i = 1; i < threads; i++) {
+            Search helper = searches[i];
+            helpers[i - 1] = new Thread(() -> helper.search(maxDepth, 0), "search-helper-" + i);
+            helpers[i - 1].setDaemon(true);
+            helpers[i - 1].start();
+        }
+
+        SearchResult result = main.search(maxDepth, maxNodes, maxMillis);
+
+        for (int i = 1; i < threads; i++) {
+            searches[i].stop();
+        }
+
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        running = new Search[0];
+
+        return result == null ? null : withTotalNodes(result, searches);
+    }
+
+    // Also stops every later search of this instance.
+    void stop() {
+        stopped = true;
+        for (Search search : running) {
+            search.stop();
+        }
+    }
+
+    private static SearchResult withTotalNodes(SearchResult result, Search[] searches) {
+
+        long nodes = 0;
+
+        for (Search search : searches) {
+            nodes += search.getNodes();
+        }
+
+        return new SearchResult(result.bestMove, result.score, result.depth, nodes, result.elapsedNanos, result.principalVariation);
+    }
+
+    TranspositionTable getTable() {
+        return table;
+    }
+}
@@ -3,17 +3,35 @@ package me.igorson;
 import org.apache.batik.transcoder.TranscoderException;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public class Main{
 
 
     public static void main(String[] args) throws IOException, InterruptedException, TranscoderException {
 
+        EngineStats.register();
+
+        // "uci" talks the Universal Chess Interface on standard input and output instead of opening the board.
+        if (args.length > 0 && args[0].equalsIgnoreCase("uci")) {
+            new Uci(System.in, System.out).run();
+            return;
+        }
+
         String fen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR";
 
-        Game game = new Game(fen, Piece.White, true, true, true ,true);
+        Game game = Game.console(fen, Piece.White, true, true, true ,true);
+
+        // "white" or "black" lets the computer play that side, optionally followed by a Polyglot book to open with.
+        if (args.length > 0) {
+            game.setComputerSide(args[0].equalsIgnoreCase("white") ? Piece.White : Piece.Black, 64, 2_000_000);
+        }
+        if (args.length > 1) {
+            game.setBook(PolyglotBook.open(Path.of(args[1])));
+        }
+
         game.start();
 
 
     }
-}
\ No newline at end of file
+}
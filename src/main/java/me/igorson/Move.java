@@ -2,6 +2,12 @@ package me.igorson;
 
 public class Move {
 
+    // Packed int form used by the generator and the board: from 0-5, to 6-11, promotion piece 12-14, flags 15-18.
+    static final int CAPTURE = 1 << 15;
+    static final int EN_PASSANT = 1 << 16;
+    static final int CASTLING = 1 << 17;
+    static final int DOUBLE_PUSH = 1 << 18;
+
     public Move(int from, int to){
         this.from = from;
         this.to = to;
@@ -13,8 +19,44 @@ public class Move {
         this.to = to;
         this.pieceToPromote = pieceToPromote;
     }
+
+    Move(int move){
+        this(from(move), to(move), promotion(move));
+    }
+
     int from, to, pieceToPromote;
 
+    static int encode(int from, int to, int promotion, int flags) {
+        return from | to << 6 | promotion << 12 | flags;
+    }
+
+    static int from(int move) {
+        return move & 63;
+    }
+
+    static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    int encode() {
+        return encode(from, to, pieceToPromote, 0);
+    }
+
+    // Coordinate notation, e.g. "e2e4" or "e7e8q".
+    static String toUci(int move) {
+        String result = squareName(from(move)) + squareName(to(move));
+        int promotion = promotion(move);
+        return promotion == 0 ? result : result + " pbnrqk".charAt(promotion);
+    }
+
+    static String squareName(int square) {
+        return String.valueOf((char) ('a' + (square & 7))) + (char) ('8' - (square >> 3));
+    }
+
     @Override
     public String toString(){
         return from + " " + to;
@@ -0,0 +1,341 @@
+package me.igorson;
+
+final class MoveGenerator {
+
+    // Upper bound on the moves of a single position, the size of one per-ply move buffer.
+    static final int MAX_MOVES = 256;
+
+    private MoveGenerator() {
+    }
+
+    static int generatePseudoLegalMoves(Board board, int side, boolean skipKing, int[] moves, int count) {
+
+        if (!Stats.on()) return pseudoLegalMoves(board, side, skipKing, moves, count);
+
+        Stats.pseudoLegalMoveGenerations.increment();
+        long start = Stats.sample(board);
+
+        count = pseudoLegalMoves(board, side, skipKing, moves, count);
+
+        if (start != 0) Stats.pseudoLegalGenerationTimes.record(System.nanoTime() - start);
+
+        return count;
+    }
+
+    private static int pseudoLegalMoves(Board board, int side, boolean skipKing, int[] moves, int count) {
+
+        long own = board.colors[Bitboards.colorIndex(side)];
+
+        count = generatePieceMoves(board, side, ~own, 0, 0, moves, count);
+        count = generatePawnMoves(board, side, 0, -1L, 0, side == board.sideToMove, false, true, true, moves, count);
+
+        if (skipKing) return count;
+
+        long king = board.pieces[Piece.King + side];
+        if (king == 0) return count;
+
+        int from = Long.numberOfTrailingZeros(king);
+        count = addMoves(board, from, Bitboards.KING_ATTACKS[from] & ~own, moves, count);
+
+        int rights = side == Piece.White ? Board.WHITE_KINGSIDE | Board.WHITE_QUEENSIDE : Board.BLACK_KINGSIDE | Board.BLACK_QUEENSIDE;
+        int enemy = Board.opponent(side);
+
+        if ((board.castlingRights & rights) == 0 || board.isSquareAttacked(from, enemy)) return count;
+
+        long attacked = 0;
+        for (int square = from - 2; square <= from + 2; square++) {
+            if (square >= 0 && square < 64 && board.isSquareAttacked(square, enemy)) attacked |= 1L << square;
+        }
+
+        return generateCastlingMoves(board, side, from, attacked, moves, count);
+    }
+
+    static int generateLegalMoves(Board board, int[] moves, int count) {
+        return generateLegal(board, true, true, moves, count);
+    }
+
+    // Only captures, en passant included, and promotions: the moves a quiescence search looks at.
+    static int generateLegalCaptures(Board board, int[] moves, int count) {
+        return generateLegal(board, true, false, moves, count);
+    }
+
+    // Every legal move generateLegalCaptures leaves out, castling included.
+    static int generateLegalQuiets(Board board, int[] moves, int count) {
+        return generateLegal(board, false, true, moves, count);
+    }
+
+    private static int generateLegal(Board board, boolean captures, boolean quiets, int[] moves, int count) {
+
+        if (!Stats.on()) return legalMoves(board, captures, quiets, moves, count);
+
+        Stats.legalMoveGenerations.increment();
+        long start = Stats.sample(board);
+
+        count = legalMoves(board, captures, quiets, moves, count);
+
+        if (start != 0) Stats.legalGenerationTimes.record(System.nanoTime() - start);
+
+        return count;
+    }
+
+    private static int legalMoves(Board board, boolean captures, boolean quiets, int[] moves, int count) {
+
+        int side = board.sideToMove;
+        int enemy = Board.opponent(side);
+
+        long own = board.colors[Bitboards.colorIndex(side)];
+        long occupied = board.occupied;
+
+        int king = board.kingSquare(side);
+        long kingBit = 1L << king;
+
+        // The king is taken off the board so it cannot hide behind itself when stepping along a checking ray.
+        long attacked = attackedSquares(board, enemy, occupied ^ kingBit);
+        long targets = (captures ? board.colors[Bitboards.colorIndex(enemy)] : 0) | (quiets ? ~occupied : 0);
+
+        count = addMoves(board, king, Bitboards.KING_ATTACKS[king] & targets & ~attacked, moves, count);
+
+        long checkers = board.attackersOf(king, enemy, occupied);
+
+        if ((checkers & (checkers - 1)) != 0) return count;
+
+        long checkMask = -1L;
+
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.BETWEEN[king * 64 + checker];
+        }
+
+        long pinned = pinnedPieces(board, side, king);
+
+        count = generatePieceMoves(board, side, targets & checkMask, king, pinned, moves, count);
+        count = generatePawnMoves(board, side, king, checkMask, pinned, captures, true, captures, quiets, moves, count);
+
+        if (checkers == 0 && quiets) {
+            count = generateCastlingMoves(board, side, king, attacked, moves, count);
+        }
+
+        return count;
+    }
+
+    // Knight, bishop, rook and queen moves; pinned pieces are kept on the line through their king.
+    private static int generatePieceMoves(Board board, int side, long targets, int king, long pinned, int[] moves, int count) {
+
+        long occupied = board.occupied;
+
+        long knights = board.pieces[Piece.Knight + side] & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(board, from, Bitboards.KNIGHT_ATTACKS[from] & targets, moves, count);
+        }
+
+        long bishops = board.pieces[Piece.Bishop + side] | board.pieces[Piece.Queen + side];
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            long destinations = Bitboards.bishopAttacks(from, occupied) & targets;
+            if ((pinned & (1L << from)) != 0) destinations &= Bitboards.LINE[king * 64 + from];
+            count = addMoves(board, from, destinations, moves, count);
+        }
+
+        long rooks = board.pieces[Piece.Rook + side] | board.pieces[Piece.Queen + side];
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            long destinations = Bitboards.rookAttacks(from, occupied) & targets;
+            if ((pinned & (1L << from)) != 0) destinations &= Bitboards.LINE[king * 64 + from];
+            count = addMoves(board, from, destinations, moves, count);
+        }
+
+        return count;
+    }
+
+    private static int generatePawnMoves(Board board, int side, int king, long checkMask, long pinned,
+                                         boolean enPassant, boolean legal, boolean captures, boolean quiets,
+                                         int[] moves, int count) {
+
+        long pawns = board.pieces[Piece.Pawn + side];
+        long enemy = board.colors[Bitboards.colorIndex(Board.opponent(side))];
+        long empty = ~board.occupied;
+
+        long singlePushes, doublePushes, leftCaptures, rightCaptures;
+        int forward, left, right;
+
+        if (side == Piece.White) {
+            singlePushes = (pawns >>> 8) & empty;
+            doublePushes = ((singlePushes & Bitboards.RANK_3) >>> 8) & empty;
+            leftCaptures = ((pawns & ~Bitboards.FILE_A) >>> 9) & enemy;
+            rightCaptures = ((pawns & ~Bitboards.FILE_H) >>> 7) & enemy;
+            forward = -8;
+            left = -9;
+            right = -7;
+        } else {
+            singlePushes = (pawns << 8) & empty;
+            doublePushes = ((singlePushes & Bitboards.RANK_6) << 8) & empty;
+            leftCaptures = ((pawns & ~Bitboards.FILE_A) << 7) & enemy;
+            rightCaptures = ((pawns & ~Bitboards.FILE_H) << 9) & enemy;
+            forward = 8;
+            left = 7;
+            right = 9;
+        }
+
+        // Pushes that promote count as captures.
+        long promotions = Bitboards.RANK_1 | Bitboards.RANK_8;
+
+        if (!quiets) {
+            singlePushes &= promotions;
+            doublePushes = 0;
+        }
+        if (!captures) {
+            singlePushes &= ~promotions;
+            leftCaptures = 0;
+            rightCaptures = 0;
+        }
+
+        count = addPawnMoves(forward, singlePushes & checkMask, 0, king, pinned, moves, count);
+        count = addPawnMoves(2 * forward, doublePushes & checkMask, Move.DOUBLE_PUSH, king, pinned, moves, count);
+        count = addPawnMoves(left, leftCaptures & checkMask, Move.CAPTURE, king, pinned, moves, count);
+        count = addPawnMoves(right, rightCaptures & checkMask, Move.CAPTURE, king, pinned, moves, count);
+
+        int target = board.enPassantSquare;
+
+        if (target == -1 || !enPassant) return count;
+
+        int capturedSquare = target - forward;
+        int enemyColor = Board.opponent(side);
+        long attackers = Bitboards.PAWN_ATTACKS[Bitboards.colorIndex(enemyColor)][target] & pawns;
+
+        // Capturing en passant removes two pieces from one rank, so it is verified against the resulting occupancy.
+        while (attackers != 0) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+
+            if (legal) {
+                if ((checkMask & ((1L << target) | (1L << capturedSquare))) == 0) continue;
+
+                long occupancy = board.occupied ^ (1L << from) ^ (1L << capturedSquare) | (1L << target);
+                long queens = board.pieces[Piece.Queen + enemyColor];
+
+                if ((Bitboards.rookAttacks(king, occupancy) & (board.pieces[Piece.Rook + enemyColor] | queens)) != 0) continue;
+                if ((Bitboards.bishopAttacks(king, occupancy) & (board.pieces[Piece.Bishop + enemyColor] | queens)) != 0) continue;
+            }
+
+            moves[count++] = Move.encode(from, target, 0, Move.CAPTURE | Move.EN_PASSANT);
+        }
+
+        return count;
+    }
+
+    private static int addPawnMoves(int offset, long destinations, int flags, int king, long pinned, int[] moves, int count) {
+
+        while (destinations != 0) {
+            int to = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+
+            int from = to - offset;
+
+            if ((pinned & (1L << from)) != 0 && (Bitboards.LINE[king * 64 + from] & (1L << to)) == 0) continue;
+
+            if (to < 8 || to > 55) {
+                for (int piece = Piece.Queen; piece >= Piece.Bishop; piece--) {
+                    moves[count++] = Move.encode(from, to, piece, flags);
+                }
+            } else {
+                moves[count++] = Move.encode(from, to, 0, flags);
+            }
+        }
+
+        return count;
+    }
+
+    private static int addMoves(Board board, int from, long destinations, int[] moves, int count) {
+
+        int[] squares = board.squares;
+
+        while (destinations != 0) {
+            int to = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+            moves[count++] = Move.encode(from, to, 0, squares[to] != 0 ? Move.CAPTURE : 0);
+        }
+
+        return count;
+    }
+
+    private static int generateCastlingMoves(Board board, int side, int king, long attacked, int[] moves, int count) {
+
+        int kingside = side == Piece.White ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+        int queenside = side == Piece.White ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+        int home = side == Piece.White ? 60 : 4;
+
+        if ((board.castlingRights & (kingside | queenside)) == 0 || king != home) return count;
+
+        long occupied = board.occupied;
+        int[] squares = board.squares;
+
+        if ((board.castlingRights & kingside) != 0 && squares[king + 3] == Piece.Rook + side
+                && (occupied & (3L << (king + 1))) == 0 && (attacked & (3L << (king + 1))) == 0) {
+            moves[count++] = Move.encode(king, king + 2, 0, Move.CASTLING);
+        }
+
+        if ((board.castlingRights & queenside) != 0 && squares[king - 4] == Piece.Rook + side
+                && (occupied & (7L << (king - 3))) == 0 && (attacked & (3L << (king - 2))) == 0) {
+            moves[count++] = Move.encode(king, king - 2, 0, Move.CASTLING);
+        }
+
+        return count;
+    }
+
+    static long attackedSquares(Board board, int color, long occupancy) {
+
+        long pawns = board.pieces[Piece.Pawn + color];
+        long attacked = color == Piece.White
+                ? ((pawns & ~Bitboards.FILE_A) >>> 9) | ((pawns & ~Bitboards.FILE_H) >>> 7)
+                : ((pawns & ~Bitboards.FILE_A) << 7) | ((pawns & ~Bitboards.FILE_H) << 9);
+
+        long knights = board.pieces[Piece.Knight + color];
+        while (knights != 0) {
+            attacked |= Bitboards.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(knights)];
+            knights &= knights - 1;
+        }
+
+        long diagonal = board.pieces[Piece.Bishop + color] | board.pieces[Piece.Queen + color];
+        while (diagonal != 0) {
+            attacked |= Bitboards.bishopAttacks(Long.numberOfTrailingZeros(diagonal), occupancy);
+            diagonal &= diagonal - 1;
+        }
+
+        long straight = board.pieces[Piece.Rook + color] | board.pieces[Piece.Queen + color];
+        while (straight != 0) {
+            attacked |= Bitboards.rookAttacks(Long.numberOfTrailingZeros(straight), occupancy);
+            straight &= straight - 1;
+        }
+
+        return attacked | Bitboards.KING_ATTACKS[board.kingSquare(color)];
+    }
+
+    private static long pinnedPieces(Board board, int side, int king) {
+
+        int enemy = Board.opponent(side);
+        long queens = board.pieces[Piece.Queen + enemy];
+        long own = board.colors[Bitboards.colorIndex(side)];
+
+        long snipers = (Bitboards.rookAttacks(king, 0) & (board.pieces[Piece.Rook + enemy] | queens))
+                | (Bitboards.bishopAttacks(king, 0) & (board.pieces[Piece.Bishop + enemy] | queens));
+
+        long pinned = 0;
+
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long between = Bitboards.BETWEEN[king * 64 + sniper] & board.occupied;
+
+            if (between != 0 && (between & (between - 1)) == 0) {
+                pinned |= between & own;
+            }
+        }
+
+        return pinned;
+    }
+}
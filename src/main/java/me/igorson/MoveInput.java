@@ -0,0 +1,22 @@
+package me.igorson;
+
+interface MoveInput {
+
+    // For games without a human player: asking for a move is an error and promotions go to a queen.
+    MoveInput NONE = new MoveInput() {
+        @Override
+        public Move readMove() {
+            throw new IllegalStateException("This game has no move input.");
+        }
+
+        @Override
+        public int readPromotionPiece(int side) {
+            return Piece.Queen;
+        }
+    };
+
+    Move readMove();
+
+    // One of Piece.Knight, Piece.Bishop, Piece.Rook or Piece.Queen.
+    int readPromotionPiece(int side);
+}
@@ -0,0 +1,190 @@
+package me.igorson;
+
+// Hands out the legal moves of one node best first, generating them in stages so a cutoff early on saves the work of
+// the later ones: the hash move before anything is generated, then captures and promotions that do not lose
+// material, the killer moves, the other quiet moves by history score and last the losing captures.
+// One picker is kept per ply and reused.
+final class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int GENERATE_QUIETS = 3;
+    private static final int KILLERS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int DONE = 7;
+
+    private final Board board;
+    private final int[] history;
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+
+    private int stage;
+    private boolean capturesOnly;
+    private int hashMove, killer1, killer2;
+
+    // Captures are kept at the front of moves; the losing ones are moved behind badCapturesStart as they are met.
+    private int next, count, capturesEnd, badCapturesStart;
+
+    // history is indexed like Search.history and read while the quiet moves are scored.
+    MovePicker(Board board, int[] history) {
+        this.board = board;
+        this.history = history;
+    }
+
+    // All legal moves; a hash move or killer that is 0 is not used.
+    void init(int hashMove, int killer1, int killer2) {
+        this.hashMove = isPlausible(hashMove) ? hashMove : 0;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        capturesOnly = false;
+        stage = this.hashMove != 0 ? HASH_MOVE : GENERATE_CAPTURES;
+    }
+
+    // Only the captures and promotions that do not lose material, for the quiescence search.
+    void initCaptures() {
+        hashMove = killer1 = killer2 = 0;
+        capturesOnly = true;
+        stage = GENERATE_CAPTURES;
+    }
+
+    // The next move to try, or 0 when there are none left.
+    int next() {
+
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE -> {
+                    stage = GENERATE_CAPTURES;
+                    return hashMove;
+                }
+                case GENERATE_CAPTURES -> {
+                    count = MoveGenerator.generateLegalCaptures(board, moves, 0);
+                    scoreCaptures();
+                    next = 0;
+                    capturesEnd = count;
+                    badCapturesStart = count;
+                    stage = GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    while (next < badCapturesStart) {
+                        int move = pickBest(next, badCapturesStart);
+
+                        if (move == hashMove) {
+                            next++;
+                            continue;
+                        }
+
+                        // A capture of a cheaper piece only counts as good if the exchange does not lose material.
+                        if (scores[next] < 0 && board.staticExchange(move) < 0) {
+                            badCapturesStart--;
+                            swap(next, badCapturesStart);
+                            continue;
+                        }
+
+                        next++;
+                        return move;
+                    }
+                    stage = capturesOnly ? DONE : GENERATE_QUIETS;
+                }
+                case GENERATE_QUIETS -> {
+                    count = MoveGenerator.generateLegalQuiets(board, moves, capturesEnd);
+                    scoreQuiets();
+                    next = capturesEnd;
+                    stage = KILLERS;
+                }
+                case KILLERS -> {
+                    // Killers come from sibling nodes, so they are only tried when they were generated here too.
+                    for (int i = next; i < count; i++) {
+                        if (moves[i] != hashMove && (moves[i] == killer1 || moves[i] == killer2)) {
+                            swap(i, next);
+                            return moves[next++];
+                        }
+                    }
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    while (next < count) {
+                        int move = pickBest(next, count);
+                        next++;
+
+                        if (move != hashMove && move != killer1 && move != killer2) return move;
+                    }
+                    next = badCapturesStart;
+                    stage = BAD_CAPTURES;
+                }
+                case BAD_CAPTURES -> {
+                    while (next < capturesEnd) {
+                        int move = moves[next++];
+                        if (move != hashMove) return move;
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    // Most valuable victim first, then least valuable attacker. Captures of a cheaper piece score below 0 and get
+    // their exchange checked when they are picked; promotions count the gain of the new piece.
+    private void scoreCaptures() {
+
+        int[] squares = board.squares;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+
+            int victim = (move & Move.EN_PASSANT) != 0 ? Piece.Pawn : squares[Move.to(move)] & 7;
+            int attacker = squares[Move.from(move)] & 7;
+            int promotion = Move.promotion(move);
+
+            int gain = Evaluation.PIECE_VALUES[victim];
+            if (promotion != 0) gain += Evaluation.PIECE_VALUES[promotion] - Evaluation.PIECE_VALUES[Piece.Pawn];
+
+            int risk = attacker == Piece.King ? 0 : Evaluation.PIECE_VALUES[attacker];
+
+            scores[i] = gain >= risk ? gain * 16 - attacker : gain - risk;
+        }
+    }
+
+    private void scoreQuiets() {
+
+        int offset = Bitboards.colorIndex(board.sideToMove) * 4096;
+
+        for (int i = capturesEnd; i < count; i++) {
+            scores[i] = history[offset + (moves[i] & 4095)];
+        }
+    }
+
+    // Swaps the best scored move of the range to its start and returns it.
+    private int pickBest(int start, int end) {
+
+        int best = start;
+
+        for (int i = start + 1; i < end; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+
+        swap(start, best);
+        return moves[start];
+    }
+
+    private void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    // The hash move comes from an entry verified against the full key, so it is legal here; this only guards
+    // against a move that does not even belong to the side to move.
+    private boolean isPlausible(int move) {
+        return move != 0 && (board.squares[Move.from(move)] & board.sideToMove) != 0;
+    }
+}
@@ -0,0 +1,54 @@
+package me.igorson;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// ForkJoinTask is Serializable, but these tasks never leave the pool that runs them.
+@SuppressWarnings("serial")
+final class ParallelPerft extends RecursiveTask<Long> {
+
+    private final Game game;
+    private final int depth;
+    private final int splitDepth;
+
+    private ParallelPerft(Game game, int depth, int splitDepth) {
+        this.game = game;
+        this.depth = depth;
+        this.splitDepth = splitDepth;
+    }
+
+    // Counts the same nodes as Game.perft; the first splitDepth plies are split into one task per move,
+    // each working on its own copy of the position.
+    static long perft(Game game, int depth, int splitDepth, ForkJoinPool pool) {
+
+        return pool.invoke(new ParallelPerft(game.clone(), depth, splitDepth));
+    }
+
+    @Override
+    protected Long compute() {
+
+        if (splitDepth <= 0 || depth <= 2) {
+            return game.perft(depth, 0);
+        }
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = game.generateLegalMoves(moves);
+
+        ParallelPerft[] subtrees = new ParallelPerft[count];
+
+        for (int i = 0; i < count; i++) {
+            Game child = game.clone();
+            child.makeMove(moves[i]);
+            subtrees[i] = new ParallelPerft(child, depth - 1, splitDepth - 1);
+        }
+
+        invokeAll(subtrees);
+
+        long nodes = 0;
+
+        for (ParallelPerft subtree : subtrees) {
+            nodes += subtree.join();
+        }
+        return nodes;
+    }
+}
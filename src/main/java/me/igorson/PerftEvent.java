@@ -0,0 +1,25 @@
+package me.igorson;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One perft count started through Game; the event duration is the time it took.
+@Name("me.igorson.Perft")
+@Label("Perft")
+@Category({"FinalChess", "Perft"})
+final class PerftEvent extends Event {
+
+    @Label("Position")
+    String fen;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Kind")
+    String kind;
+}
@@ -0,0 +1,197 @@
+package me.igorson;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Checks Game.perft against the D1..Dn node counts of an EPD suite. Positions run in parallel, each on its own
+// Game; a wrong count stops that position and prints the count of every root move one ply less deep.
+final class PerftSuite {
+
+    static final String BUNDLED = "perftsuite.epd";
+
+    private final int threads;
+    private final int maxDepth;
+
+    private int passed, failed;
+    private long nodes;
+
+    // The position of one suite line and its expected counts by depth, -1 where the line gives none.
+    private static final class Entry {
+        final int line;
+        final String fen;
+        final long[] expected;
+
+        Entry(int line, String fen, long[] expected) {
+            this.line = line;
+            this.fen = fen;
+            this.expected = expected;
+        }
+    }
+
+    private static final class Report {
+        final boolean ok;
+        final long nodes;
+        final String text;
+
+        Report(boolean ok, long nodes, String text) {
+            this.ok = ok;
+            this.nodes = nodes;
+            this.text = text;
+        }
+    }
+
+    PerftSuite(int threads, int maxDepth) {
+        this.threads = Math.max(1, threads);
+        this.maxDepth = maxDepth;
+    }
+
+    // Prints one report per position in suite order and returns whether every count matched.
+    boolean run(List<String> lines) throws InterruptedException {
+
+        List<Entry> entries = parse(lines);
+
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Report>> reports = new ArrayList<>();
+
+        for (Entry entry : entries) {
+            reports.add(executor.submit(() -> check(entry)));
+        }
+
+        executor.shutdown();
+
+        for (Future<Report> future : reports) {
+            Report report;
+            try {
+                report = future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+
+            System.out.print(report.text);
+
+            if (report.ok) passed++;
+            else failed++;
+            nodes += report.nodes;
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d passed, %d failed | nodes %d | time %d | nps %d%n",
+                passed, failed, nodes, elapsed / 1_000_000, elapsed == 0 ? 0 : nodes * 1_000_000_000L / elapsed);
+
+        return failed == 0;
+    }
+
+    private static List<Entry> parse(List<String> lines) {
+
+        List<Entry> entries = new ArrayList<>();
+        Board board = new Board();
+
+        for (int i = 0; i < lines.size(); i++) {
+
+            String line = lines.get(i).trim();
+
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            Map<String, String> operations = Fen.parseEpd(line, board);
+
+            int depths = 0;
+            while (operations.containsKey("D" + (depths + 1))) depths++;
+
+            long[] expected = new long[depths + 1];
+            expected[0] = 1;
+
+            for (int depth = 1; depth <= depths; depth++) {
+                expected[depth] = Long.parseLong(operations.get("D" + depth).trim());
+            }
+
+            entries.add(new Entry(i + 1, Fen.toFen(board), expected));
+        }
+
+        return entries;
+    }
+
+    private Report check(Entry entry) {
+
+        Game game = Game.headless(entry.fen);
+        StringBuilder text = new StringBuilder();
+
+        long total = 0;
+        long start = System.nanoTime();
+        int depth = 1;
+        boolean ok = true;
+
+        for (; depth < entry.expected.length && depth <= maxDepth; depth++) {
+
+            long count = game.perft(depth);
+            total += count;
+
+            if (count != entry.expected[depth]) {
+                ok = false;
+                text.append(String.format("FAIL line %d D%d expected %d got %d  %s%n", entry.line, depth, entry.expected[depth], count, entry.fen));
+                divide(game, depth, text);
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if (ok) {
+            text.append(String.format("ok   line %d D%d nodes %d time %d nps %d  %s%n", entry.line, depth - 1, total,
+                    elapsed / 1_000_000, elapsed == 0 ? 0 : total * 1_000_000_000L / elapsed, entry.fen));
+        }
+
+        return new Report(ok, total, text.toString());
+    }
+
+    // The perft count below every root move, to compare against another engine's divide output.
+    static void divide(Game game, int depth, StringBuilder out) {
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = game.generateLegalMoves(moves);
+
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            out.append("    ").append(Move.toUci(moves[i])).append(": ").append(game.perft(depth - 1)).append('\n');
+            game.undoMove();
+        }
+    }
+
+    // Arguments: the suite file ("-" for the bundled one), threads and maximum depth.
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        EngineStats.register();
+
+        List<String> lines;
+
+        if (args.length == 0 || args[0].equals("-")) {
+            try (InputStream in = PerftSuite.class.getClassLoader().getResourceAsStream(BUNDLED)) {
+                if (in == null) throw new IOException("Missing " + BUNDLED);
+                lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines().toList();
+            }
+        } else {
+            lines = Files.readAllLines(Path.of(args[0]));
+        }
+
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        if (!new PerftSuite(threads, maxDepth).run(lines)) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package me.igorson;
+
+final class PerftTable {
+
+    private final long[] keys;
+    private final long[] nodes;
+    private final int mask;
+
+    // The table holds the largest power of two number of 16-byte entries that fits in sizeMb.
+    PerftTable(int sizeMb) {
+
+        long entries = Math.max(1L, (long) sizeMb * 1024 * 1024 / 16);
+        int capacity = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+
+        keys = new long[capacity];
+        nodes = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static long entryKey(long key, int depth) {
+        return key ^ (depth * 0x9E3779B97F4A7C15L);
+    }
+
+    // The stored count for this position and depth, or -1 when it is not in the table.
+    long probe(long key, int depth) {
+
+        long entryKey = entryKey(key, depth);
+        int index = (int) entryKey & mask;
+
+        return keys[index] == entryKey ? nodes[index] : -1;
+    }
+
+    // Always replaces whatever entry the slot held before.
+    void store(long key, int depth, long count) {
+
+        long entryKey = entryKey(key, depth);
+        int index = (int) entryKey & mask;
+
+        keys[index] = entryKey;
+        nodes[index] = count;
+    }
+}
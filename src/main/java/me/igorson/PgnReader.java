@@ -0,0 +1,113 @@
+package me.igorson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Splits a PGN file into the text of its games. The file is memory-mapped one window at a time, so files larger than
+// the heap can be read and only the game being returned is ever copied.
+final class PgnReader implements Closeable {
+
+    private static final long WINDOW = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+
+    private long position;
+    private long gameStart;
+
+    PgnReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    // The tag pairs and movetext of the next game, or null at the end of the file. A game ends where a tag pair
+    // line follows its movetext.
+    String nextGame() throws IOException {
+
+        if (position == 0 && size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF) {
+            position = 3;
+        }
+
+        while (position < size) {
+            gameStart = position;
+            if (!isSpace(byteAt(position))) break;
+            position++;
+        }
+
+        if (position >= size) return null;
+
+        boolean movetext = false;
+        boolean lineStart = true;
+        boolean lineComment = false;
+        int braceDepth = 0;
+
+        for (; position < size; position++) {
+
+            byte b = byteAt(position);
+
+            if (lineStart && b == '[' && movetext && braceDepth == 0) break;
+
+            if (lineComment) {
+                lineComment = b != '\n';
+            } else if (movetext) {
+                if (b == '{') braceDepth++;
+                else if (b == '}' && braceDepth > 0) braceDepth--;
+                else if (b == ';' && braceDepth == 0) lineComment = true;
+            } else if (lineStart && b != '[' && !isSpace(b)) {
+                movetext = true;
+                if (b == '{') braceDepth++;
+                else if (b == ';') lineComment = true;
+            }
+
+            lineStart = b == '\n' || (lineStart && isSpace(b));
+        }
+
+        byte[] bytes = new byte[(int) (position - gameStart)];
+        buffer.get((int) (gameStart - bufferStart), bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Bytes past the current window map a new one starting at the game being read, so a game never spans two windows.
+    private byte byteAt(long offset) throws IOException {
+
+        if (buffer == null || offset - bufferStart >= buffer.limit()) {
+
+            long start = buffer == null ? 0 : gameStart;
+
+            if (offset - start >= WINDOW) {
+                throw new IOException("Game at offset " + start + " is longer than " + WINDOW + " bytes");
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+            bufferStart = start;
+        }
+
+        return buffer.get((int) (offset - bufferStart));
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
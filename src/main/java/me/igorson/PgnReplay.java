@@ -0,0 +1,215 @@
+package me.igorson;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Reads a PGN file with PgnReader on the calling thread and replays its games on worker threads, resolving every
+// SAN move against the legal moves of the position. The queue between them is bounded, so memory use does not
+// depend on the size of the file.
+final class PgnReplay {
+
+    private static final String END = new String("end");
+
+    private final int threads;
+
+    private final LongAdder games = new LongAdder();
+    private final LongAdder invalidGames = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final AtomicReference<String> firstError = new AtomicReference<>();
+
+    private long elapsedNanos;
+
+    PgnReplay(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    void run(Path path) throws IOException, InterruptedException {
+
+        long start = System.nanoTime();
+
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(threads * 256);
+        Thread[] workers = new Thread[threads];
+
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> replayGames(queue), "pgn-replay-" + i);
+            workers[i].start();
+        }
+
+        try (PgnReader reader = new PgnReader(path)) {
+            for (String game = reader.nextGame(); game != null; game = reader.nextGame()) {
+                queue.put(game);
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                queue.put(END);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    private void replayGames(BlockingQueue<String> queue) {
+
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+
+        try {
+            for (String game = queue.take(); game != END; game = queue.take()) {
+
+                boolean valid;
+
+                // One corrupt game must not take the worker down, or the reader blocks once every worker is gone.
+                try {
+                    valid = replay(game, buffer);
+                } catch (RuntimeException e) {
+                    valid = error(game, e.toString());
+                }
+
+                if (!valid) invalidGames.increment();
+                games.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Plays the main line of one game; comments, variations, NAGs, move numbers and the result are skipped.
+    private boolean replay(String text, int[] buffer) {
+
+        int length = text.length();
+        int i = 0;
+        String fen = null;
+
+        while (i < length && text.charAt(i) == '[') {
+            int lineEnd = text.indexOf('\n', i);
+            if (lineEnd < 0) lineEnd = length;
+
+            if (text.startsWith("[FEN ", i)) {
+                int open = text.indexOf('"', i);
+                int close = open < 0 ? -1 : text.indexOf('"', open + 1);
+                if (close < 0 || close > lineEnd) return error(text, "malformed FEN tag");
+                fen = text.substring(open + 1, close);
+            }
+
+            i = lineEnd;
+            while (i < length && Character.isWhitespace(text.charAt(i))) i++;
+        }
+
+        Game game = fen == null ? Game.headless(Fen.START) : fromFen(fen);
+
+        if (game == null) return error(text, "invalid FEN " + fen);
+
+        int variation = 0;
+        int played = 0;
+
+        while (i < length) {
+
+            char c = text.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '{') {
+                i = text.indexOf('}', i);
+                if (i < 0) return error(text, "unterminated comment");
+                i++;
+            } else if (c == ';') {
+                i = text.indexOf('\n', i);
+                if (i < 0) i = length;
+            } else if (c == '(') {
+                variation++;
+                i++;
+            } else if (c == ')') {
+                variation--;
+                i++;
+            } else {
+                int start = i;
+
+                while (i < length && !Character.isWhitespace(text.charAt(i)) && "{};()".indexOf(text.charAt(i)) < 0) i++;
+
+                if (variation > 0 || c == '$') continue;
+
+                String token = text.substring(start, i);
+
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) break;
+
+                // Move numbers, possibly glued to the move as in "12.e4" or "12...Nf6".
+                if (Character.isDigit(c) && !token.startsWith("0-0")) {
+                    int end = 0;
+                    while (end < token.length() && (Character.isDigit(token.charAt(end)) || token.charAt(end) == '.')) end++;
+                    token = token.substring(end);
+                    if (token.isEmpty()) continue;
+                }
+
+                int count = game.generateLegalMoves(buffer);
+                int move = San.parse(game.getBoard(), token, buffer, count);
+
+                if (move == 0) return error(text, "illegal or ambiguous move " + token + " at ply " + (played + 1));
+
+                game.makeMove(move);
+                played++;
+            }
+        }
+
+        moves.add(played);
+        return true;
+    }
+
+    private static Game fromFen(String fen) {
+        try {
+            return Game.headless(fen);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean error(String text, String message) {
+
+        int lineEnd = text.indexOf('\n');
+
+        firstError.compareAndSet(null, message + " in game starting " + (lineEnd < 0 ? text : text.substring(0, lineEnd)).trim());
+        return false;
+    }
+
+    long getGames() {
+        return games.sum();
+    }
+
+    long getInvalidGames() {
+        return invalidGames.sum();
+    }
+
+    long getMoves() {
+        return moves.sum();
+    }
+
+    // The first problem any worker found, or null when every game replayed.
+    String getFirstError() {
+        return firstError.get();
+    }
+
+    double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games.sum() * 1e9 / elapsedNanos;
+    }
+
+    // Arguments: the PGN file and the number of replay threads.
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        EngineStats.register();
+
+        PgnReplay replay = new PgnReplay(args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+
+        replay.run(Path.of(args[0]));
+
+        System.out.printf("games %d invalid %d moves %d | %.0f games/s | time %d%n", replay.getGames(), replay.getInvalidGames(),
+                replay.getMoves(), replay.gamesPerSecond(), replay.elapsedNanos / 1_000_000);
+
+        if (replay.getFirstError() != null) {
+            System.out.println("first error: " + replay.getFirstError());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package me.igorson;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+
+// Run by the build after compilation to write the piece sprite atlas next to the compiled classes.
+final class PieceAtlasGenerator {
+
+    private PieceAtlasGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        File file = new File(args.length > 0 ? args[0] : ".", PieceImages.ATLAS);
+
+        if (!ImageIO.write(PieceImages.renderAtlas(), "png", file)) {
+            throw new IOException("No PNG writer to write " + file);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package me.igorson;
+
+import org.apache.batik.transcoder.SVGAbstractTranscoder;
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.image.ImageTranscoder;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+final class PieceImages {
+
+    // The atlas is one row of six sprites per color, white on top, in piece type order from pawn to king.
+    static final String ATLAS = "pieces.png";
+    static final int SPRITE_SIZE = 128;
+
+    private static final String[] NAMES = {"Pawn", "Bishop", "Knight", "Rook", "Queen", "King"};
+
+    private static BufferedImage atlas;
+
+    // Icons by size, each array indexed by piece code.
+    private static final Map<Integer, ImageIcon[]> ICONS = new HashMap<>();
+
+    private PieceImages() {
+    }
+
+    // Only called on the EDT, so the caches need no locking.
+    static ImageIcon icon(int piece, int size) {
+
+        if (piece == 0) return null;
+
+        ImageIcon[] icons = ICONS.get(size);
+
+        if (icons == null) {
+            icons = new ImageIcon[Piece.Black + Piece.King + 1];
+            ICONS.put(size, icons);
+        }
+
+        if (icons[piece] == null) {
+            icons[piece] = new ImageIcon(scale(sprite(piece), size));
+        }
+        return icons[piece];
+    }
+
+    private static BufferedImage sprite(int piece) {
+
+        if (atlas == null) {
+            atlas = loadAtlas();
+        }
+
+        int column = (piece & 7) - 1;
+        int row = Bitboards.colorIndex(piece & (Piece.White | Piece.Black));
+
+        return atlas.getSubimage(column * SPRITE_SIZE, row * SPRITE_SIZE, SPRITE_SIZE, SPRITE_SIZE);
+    }
+
+    // The atlas is generated during the build; running from sources without it falls back to rasterizing the SVGs once.
+    private static BufferedImage loadAtlas() {
+
+        try (InputStream in = PieceImages.class.getClassLoader().getResourceAsStream(ATLAS)) {
+            if (in != null) {
+                return ImageIO.read(in);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return renderAtlas();
+    }
+
+    static BufferedImage renderAtlas() {
+
+        BufferedImage image = new BufferedImage(SPRITE_SIZE * NAMES.length, SPRITE_SIZE * 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+
+        for (int row = 0; row < 2; row++) {
+            for (int column = 0; column < NAMES.length; column++) {
+                String resource = (row == 0 ? "w" : "b") + NAMES[column] + ".svg";
+                g.drawImage(rasterize(resource, SPRITE_SIZE), column * SPRITE_SIZE, row * SPRITE_SIZE, null);
+            }
+        }
+
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage rasterize(String resource, int size) {
+
+        URL url = PieceImages.class.getClassLoader().getResource(resource);
+
+        if (url == null) {
+            throw new IllegalStateException("Missing piece image " + resource);
+        }
+
+        // Keeps the transcoded image instead of encoding it to PNG and decoding it again.
+        BufferedImage[] result = new BufferedImage[1];
+
+        ImageTranscoder transcoder = new ImageTranscoder() {
+            @Override
+            public BufferedImage createImage(int width, int height) {
+                return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            }
+
+            @Override
+            public void writeImage(BufferedImage image, TranscoderOutput output) {
+                result[0] = image;
+            }
+        };
+
+        transcoder.addTranscodingHint(SVGAbstractTranscoder.KEY_WIDTH, (float) size);
+        transcoder.addTranscodingHint(SVGAbstractTranscoder.KEY_HEIGHT, (float) size);
+
+        try {
+            transcoder.transcode(new TranscoderInput(url.toString()), null);
+        } catch (TranscoderException e) {
+            throw new IllegalStateException("Cannot rasterize " + resource, e);
+        }
+
+        return result[0];
+    }
+
+    private static BufferedImage scale(BufferedImage sprite, int size) {
+
+        if (size == SPRITE_SIZE) return sprite;
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(sprite, 0, 0, size, size, null);
+
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,258 @@
+package me.igorson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// An opening book in the Polyglot .bin format: 16-byte big-endian entries of key, move, weight and learn data,
+// sorted by key. The file is memory-mapped and searched in place, so opening a book of any size reads nothing into
+// the heap and a lookup touches about log2(entries) pages. Lookups can run on several threads.
+//
+// Polyglot keys use their own table of 781 random numbers, read from the bundled resource polyglot-random64.txt or
+// from the file named by -Dfinalchess.polyglot.random64: the 0x-prefixed hex numbers in order, any other text around
+// them, such as the C array they are published in, is ignored.
+final class PolyglotBook implements Closeable {
+
+    static final String RANDOM_RESOURCE = "polyglot-random64.txt";
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int RANDOM_COUNT = 781;
+
+    // Offsets into the random table after the 768 piece-square numbers.
+    private static final int CASTLING = 768, EN_PASSANT = 772, TURN = 780;
+
+    // Published key of the starting position, used to reject a wrong table.
+    private static final long START_KEY = 0x463B96181691FC9CL;
+
+    // Polyglot piece kinds are black pawn 0, white pawn 1, black knight 2, ..., white king 11; indexed by piece code.
+    private static final int[] KINDS = new int[Piece.Black + Piece.King + 1];
+
+    // Polyglot promotion numbers 1 to 4 are knight, bishop, rook and queen.
+    private static final int[] PROMOTIONS = {0, Piece.Knight, Piece.Bishop, Piece.Rook, Piece.Queen};
+
+    static {
+        int[] order = {Piece.Pawn, Piece.Knight, Piece.Bishop, Piece.Rook, Piece.Queen, Piece.King};
+
+        for (int i = 0; i < order.length; i++) {
+            KINDS[Piece.Black + order[i]] = 2 * i;
+            KINDS[Piece.White + order[i]] = 2 * i + 1;
+        }
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer entries;
+    private final int size;
+    private final long[] random;
+
+    // Keys positions with the given 781 random numbers, e.g. from parseRandom.
+    PolyglotBook(Path path, long[] random) throws IOException {
+
+        this.random = random;
+
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        long length = channel.size();
+
+        if (length % ENTRY_SIZE != 0 || length > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Not a Polyglot book: " + path);
+        }
+
+        // Mapped buffers are big-endian like the format, and absolute reads leave them safe to share.
+        entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        size = (int) (length / ENTRY_SIZE);
+    }
+
+    // A book keyed with the random numbers of the Polyglot specification.
+    static PolyglotBook open(Path path) throws IOException {
+        return new PolyglotBook(path, standardRandom());
+    }
+
+    private static long[] standardRandom;
+
+    private static synchronized long[] standardRandom() throws IOException {
+
+        if (standardRandom == null) {
+            String file = System.getProperty("finalchess.polyglot.random64");
+            String text;
+
+            if (file != null) {
+                text = Files.readString(Path.of(file), StandardCharsets.US_ASCII);
+            } else {
+                try (InputStream in = PolyglotBook.class.getClassLoader().getResourceAsStream(RANDOM_RESOURCE)) {
+                    if (in == null) {
+                        throw new IOException("Missing " + RANDOM_RESOURCE + ", the random numbers of the Polyglot specification");
+                    }
+                    text = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+                }
+            }
+
+            standardRandom = parseRandom(text);
+        }
+        return standardRandom;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // A book move for the position chosen with probability proportional to its weight, or 0 when the book has none.
+    // Entries that are not legal here, which happens with corrupt books or key collisions, are skipped.
+    int pick(Board board, RandomGenerator randomGenerator) {
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+
+        int count = moves(board, moves, weights);
+        int total = 0;
+
+        for (int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+
+        if (total == 0) return 0;
+
+        int choice = randomGenerator.nextInt(total);
+
+        for (int i = 0; i < count; i++) {
+            choice -= weights[i];
+            if (choice < 0) return moves[i];
+        }
+        return 0;
+    }
+
+    // The legal book moves of the position in file order with their weights; returns their number.
+    int moves(Board board, int[] moves, int[] weights) {
+
+        long key = key(board);
+        int index = firstEntry(key);
+
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int legalCount = -1;
+        int count = 0;
+
+        for (; index < size && entries.getLong(index * ENTRY_SIZE) == key; index++) {
+
+            if (legalCount < 0) legalCount = MoveGenerator.generateLegalMoves(board, legal, 0);
+
+            int move = toMove(board, entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF, legal, legalCount);
+
+            if (move != 0 && count < moves.length) {
+                moves[count] = move;
+                weights[count] = entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Index of the first entry whose key is not below the given one, comparing keys as unsigned numbers.
+    private int firstEntry(long key) {
+
+        int low = 0, high = size;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(entries.getLong(middle * ENTRY_SIZE), key) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    // Polyglot moves are to file 0-2, to rank 3-5, from file 6-8, from rank 9-11 and promotion 12-14, with rank 0
+    // being the first rank. Castling is written as the king taking its own rook.
+    private static int toMove(Board board, int bookMove, int[] legal, int legalCount) {
+
+        int to = (7 - (bookMove >>> 3 & 7)) * 8 + (bookMove & 7);
+        int from = (7 - (bookMove >>> 9 & 7)) * 8 + (bookMove >>> 6 & 7);
+        int promotion = PROMOTIONS[Math.min(bookMove >>> 12 & 7, 4)];
+
+        if ((board.squares[from] & 7) == Piece.King && (from == 4 || from == 60) && (to == from + 3 || to == from - 4)) {
+            to = to > from ? from + 2 : from - 2;
+        }
+
+        for (int i = 0; i < legalCount; i++) {
+            int move = legal[i];
+
+            if (Move.from(move) == from && Move.to(move) == to && Move.promotion(move) == promotion) return move;
+        }
+        return 0;
+    }
+
+    long key(Board board) {
+        return key(board, random);
+    }
+
+    // Like Board.key, the en passant file only counts when a pawn of the side to move can capture there.
+    static long key(Board board, long[] random) {
+
+        long result = 0;
+
+        for (long remaining = board.occupied; remaining != 0; remaining &= remaining - 1) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            int row = 7 - (square >> 3);
+
+            result ^= random[64 * KINDS[board.squares[square]] + 8 * row + (square & 7)];
+        }
+
+        int rights = board.castlingRights;
+
+        if ((rights & Board.WHITE_KINGSIDE) != 0) result ^= random[CASTLING];
+        if ((rights & Board.WHITE_QUEENSIDE) != 0) result ^= random[CASTLING + 1];
+        if ((rights & Board.BLACK_KINGSIDE) != 0) result ^= random[CASTLING + 2];
+        if ((rights & Board.BLACK_QUEENSIDE) != 0) result ^= random[CASTLING + 3];
+
+        int target = board.enPassantSquare;
+
+        if (target != -1) {
+            long capturers = Bitboards.PAWN_ATTACKS[Bitboards.colorIndex(Board.opponent(board.sideToMove))][target]
+                    & board.pieces[Piece.Pawn + board.sideToMove];
+
+            if (capturers != 0) result ^= random[EN_PASSANT + (target & 7)];
+        }
+
+        return board.sideToMove == Piece.White ? result ^ random[TURN] : result;
+    }
+
+    // Reads the 781 numbers from text and checks them against the published key of the starting position.
+    static long[] parseRandom(String text) {
+
+        long[] table = new long[RANDOM_COUNT];
+        int count = 0;
+
+        Matcher matcher = Pattern.compile("0[xX]([0-9a-fA-F]{1,16})").matcher(text);
+
+        while (matcher.find()) {
+            if (count == RANDOM_COUNT) throw new IllegalArgumentException("More than " + RANDOM_COUNT + " Polyglot random numbers");
+            table[count++] = Long.parseUnsignedLong(matcher.group(1), 16);
+        }
+
+        if (count != RANDOM_COUNT) {
+            throw new IllegalArgumentException("Expected " + RANDOM_COUNT + " Polyglot random numbers, found " + count);
+        }
+
+        Board board = new Board();
+        Fen.parse(Fen.START, board);
+
+        if (key(board, table) != START_KEY) {
+            throw new IllegalArgumentException("Polyglot random numbers do not give the published starting position key");
+        }
+
+        return table;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,137 @@
+package me.igorson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// A file of BinaryPosition records. Appends go through a small buffer to the end of the file; reads decode straight
+// from memory-mapped segments of the file, so iterating does not copy the records. Reads can run on several threads
+// once no more positions are appended.
+final class PositionStore implements Closeable {
+
+    // Records per mapped segment, 1 GB each.
+    private static final int SEGMENT_BITS = 25;
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_BITS;
+
+    private static final int APPEND_RECORDS = 4096;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer appendBuffer = ByteBuffer.allocateDirect(APPEND_RECORDS * BinaryPosition.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Replaced as a whole, never changed in place, so readers always see fully set up mappings.
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    // Records in the file and records still in the append buffer.
+    private long written;
+    private int pending;
+
+    PositionStore(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        written = channel.size() / BinaryPosition.SIZE;
+    }
+
+    void append(Board board) throws IOException {
+
+        if (pending == APPEND_RECORDS) flush();
+
+        BinaryPosition.write(board, appendBuffer, pending * BinaryPosition.SIZE);
+        pending++;
+    }
+
+    void flush() throws IOException {
+
+        if (pending == 0) return;
+
+        appendBuffer.position(0).limit(pending * BinaryPosition.SIZE);
+
+        long offset = written * BinaryPosition.SIZE;
+        while (appendBuffer.hasRemaining()) {
+            offset += channel.write(appendBuffer, offset);
+        }
+
+        appendBuffer.clear();
+        written += pending;
+        pending = 0;
+    }
+
+    long size() {
+        return written + pending;
+    }
+
+    // Sets up the board from the position with the given index.
+    void read(long index, Board board) throws IOException {
+
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Position " + index + " of " + size());
+        }
+
+        if (index >= written) flush();
+
+        BinaryPosition.read(segment(index), (int) (index & (SEGMENT_RECORDS - 1)) * BinaryPosition.SIZE, board);
+    }
+
+    // Decodes every position in turn into the same board.
+    void forEach(Board board, Consumer<Board> action) throws IOException {
+
+        flush();
+
+        for (long index = 0; index < written; ) {
+
+            ByteBuffer segment = segment(index);
+            int end = segment.limit();
+
+            for (int offset = (int) (index & (SEGMENT_RECORDS - 1)) * BinaryPosition.SIZE; offset < end; offset += BinaryPosition.SIZE) {
+                BinaryPosition.read(segment, offset, board);
+                action.accept(board);
+                index++;
+            }
+        }
+    }
+
+    // The mapped segment holding the record, mapped again when it has grown past the part mapped before.
+    private ByteBuffer segment(long index) throws IOException {
+
+        int number = (int) (index >>> SEGMENT_BITS);
+
+        MappedByteBuffer[] mapped = segments;
+
+        long start = (long) number << SEGMENT_BITS;
+        long records = Math.min(SEGMENT_RECORDS, written - start);
+
+        if (number < mapped.length && mapped[number] != null && mapped[number].limit() >= records * BinaryPosition.SIZE) {
+            return mapped[number];
+        }
+
+        synchronized (this) {
+
+            mapped = segments;
+
+            if (number < mapped.length && mapped[number] != null && mapped[number].limit() >= records * BinaryPosition.SIZE) {
+                return mapped[number];
+            }
+
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start * BinaryPosition.SIZE, records * BinaryPosition.SIZE);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+
+            mapped = Arrays.copyOf(mapped, Math.max(mapped.length, number + 1));
+            mapped[number] = segment;
+
+            segments = mapped;
+            return segment;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
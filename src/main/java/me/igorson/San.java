@@ -0,0 +1,91 @@
+package me.igorson;
+
+// Standard algebraic notation as used in PGN, e.g. "e4", "Nbd7", "exd8=Q+", "O-O-O".
+final class San {
+
+    private San() {
+    }
+
+    // The legal move among moves[0..count) the text names, or 0 when it names none or more than one.
+    static int parse(Board board, String san, int[] moves, int count) {
+
+        int end = san.length();
+
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+
+        if (end < 2) return 0;
+
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            int file = end >= 5 ? 2 : 6;
+
+            for (int i = 0; i < count; i++) {
+                if ((moves[i] & Move.CASTLING) != 0 && (Move.to(moves[i]) & 7) == file) return moves[i];
+            }
+            return 0;
+        }
+
+        int promotion = 0;
+        char last = san.charAt(end - 1);
+
+        if (Character.isLetter(last)) {
+            promotion = pieceType(Character.toUpperCase(last));
+            end--;
+            if (end > 0 && san.charAt(end - 1) == '=') end--;
+            if (promotion == 0 || promotion == Piece.Pawn || promotion == Piece.King || end < 2) return 0;
+        }
+
+        int toFile = san.charAt(end - 2) - 'a';
+        int toRank = san.charAt(end - 1) - '1';
+
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) return 0;
+
+        int to = (7 - toRank) * 8 + toFile;
+
+        int piece = Piece.Pawn;
+        int start = 0;
+
+        if (Character.isUpperCase(san.charAt(0))) {
+            piece = pieceType(san.charAt(0));
+            start = 1;
+            if (piece == 0) return 0;
+        }
+
+        int fromFile = -1, fromRank = -1;
+
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+
+            if (c >= 'a' && c <= 'h') fromFile = c - 'a';
+            else if (c >= '1' && c <= '8') fromRank = c - '1';
+            else if (c != 'x' && c != ':' && c != '-') return 0;
+        }
+
+        int found = 0;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Move.from(move);
+
+            if (Move.to(move) != to || (board.squares[from] & 7) != piece || Move.promotion(move) != promotion) continue;
+            if (fromFile >= 0 && (from & 7) != fromFile) continue;
+            if (fromRank >= 0 && 7 - (from >> 3) != fromRank) continue;
+
+            if (found != 0) return 0;
+            found = move;
+        }
+
+        return found;
+    }
+
+    private static int pieceType(char letter) {
+        return switch (letter) {
+            case 'P' -> Piece.Pawn;
+            case 'N' -> Piece.Knight;
+            case 'B' -> Piece.Bishop;
+            case 'R' -> Piece.Rook;
+            case 'Q' -> Piece.Queen;
+            case 'K' -> Piece.King;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,302 @@
+package me.igorson;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+final class Search {
+
+    static final int MATE = 32000;
+    static final int INFINITY = MATE + 1;
+
+    private static final int MAX_PLY = Game.MAX_PLY;
+
+    private final Board board;
+    private final TranspositionTable table;
+
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+
+    // Two quiet moves per ply that last caused a cutoff, and per side the cutoffs of every quiet from-to pair
+    // weighted by depth squared.
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[2 * 4096];
+
+    // Triangular principal variation table: pvTable[ply] holds the best line found from that ply on.
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private int[] previousPv = new int[0];
+
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    private Consumer<SearchResult> iterationListener = result -> {
+    };
+
+    // Depth the iterative deepening starts at; Lazy SMP helpers start deeper to spread the threads out.
+    int firstDepth = 1;
+
+    Search(Board board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker(board, history);
+        }
+    }
+
+    // Called with the result of every completed iteration.
+    void setIterationListener(Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    // Can be called from another thread, also before the search starts; the search returns its last completed
+    // iteration. A stopped Search stays stopped.
+    void stop() {
+        stopRequested = true;
+    }
+
+    SearchResult search(int maxDepth, long maxNodes) {
+        return search(maxDepth, maxNodes, 0);
+    }
+
+    // A maxMillis of 0 means no time limit. An iteration that would probably not finish in the time left is not started.
+    SearchResult search(int maxDepth, long maxNodes, long maxMillis) {
+
+        long start = System.nanoTime();
+
+        this.maxNodes = maxNodes <= 0 ? Long.MAX_VALUE : maxNodes;
+        deadline = maxMillis > 0 ? start + maxMillis * 1_000_000 : 0;
+        nodes = 0;
+        aborted = false;
+        previousPv = new int[0];
+
+        for (int[] pair : killers) {
+            pair[0] = pair[1] = 0;
+        }
+        Arrays.fill(history, 0);
+
+        SearchResult result = null;
+
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+
+            // An interrupted iteration is only used when no iteration has completed yet.
+            if (aborted && (result != null || pvLength[0] == 0)) break;
+
+            int[] pv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+            previousPv = pv;
+
+            result = new SearchResult(pv.length > 0 ? pv[0] : 0, score, depth, nodes, System.nanoTime() - start, pv);
+
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.score = score;
+                event.nodes = nodes;
+                event.bestMove = Move.toUci(result.bestMove);
+                event.commit();
+            }
+
+            iterationListener.accept(result);
+
+            if (aborted || Math.abs(score) > MATE - MAX_PLY) break;
+
+            if (deadline != 0 && System.nanoTime() - start > (deadline - start) / 2) break;
+        }
+
+        if (Stats.on()) Stats.searchNodes.add(nodes);
+
+        return result;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+
+        pvLength[ply] = 0;
+
+        if (ply > 0 && (board.halfmoveClock >= 100 || board.isRepetition())) {
+            return 0;
+        }
+
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        if (ply >= MAX_PLY) {
+            nodes++;
+            return Evaluation.evaluate(board);
+        }
+
+        if (countNode()) return 0;
+
+        int hashMove = 0;
+        long entry = table.probe(board.key);
+
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int pvMove = ply < previousPv.length && followsPreviousPv(ply) ? previousPv[ply] : 0;
+
+        MovePicker picker = pickers[ply];
+        picker.init(pvMove != 0 ? pvMove : hashMove, killers[ply][0], killers[ply][1]);
+
+        int originalAlpha = alpha;
+        int bestMove = 0;
+        int searched = 0;
+
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+
+            // Stored as the hash move even if nothing beats alpha, like the first move of a fully ordered list.
+            if (searched++ == 0) bestMove = move;
+
+            board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.undoMove();
+
+            if (aborted) return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+
+                pvTable[ply][0] = move;
+                System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+
+                if (score >= beta) {
+                    if ((move & Move.CAPTURE) == 0 && Move.promotion(move) == 0) rememberCutoff(move, depth, ply);
+                    break;
+                }
+            }
+        }
+
+        if (searched == 0) {
+            return board.isInCheck(board.sideToMove) ? -MATE + ply : 0;
+        }
+
+        int bound = alpha >= beta ? TranspositionTable.LOWER_BOUND
+                : alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+
+        table.store(board.key, bestMove, alpha, depth, bound, ply);
+
+        return alpha;
+    }
+
+    // Resolves captures and promotions until the position is quiet, so the static evaluation is not taken in the
+    // middle of an exchange. The side to move may stand pat on the evaluation instead of capturing; in check every
+    // evasion is searched. Captures that lose material by static exchange are skipped.
+    private int quiescence(int ply, int alpha, int beta) {
+
+        pvLength[ply] = 0;
+
+        if (ply >= MAX_PLY) {
+            nodes++;
+            return Evaluation.evaluate(board);
+        }
+
+        if (countNode()) return 0;
+
+        boolean inCheck = board.isInCheck(board.sideToMove);
+
+        if (!inCheck) {
+            int standPat = Evaluation.evaluate(board);
+
+            if (standPat >= beta) return beta;
+            if (standPat > alpha) alpha = standPat;
+        }
+
+        MovePicker picker = pickers[ply];
+
+        if (inCheck) picker.init(0, 0, 0);
+        else picker.initCaptures();
+
+        int searched = 0;
+
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+
+            searched++;
+
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.undoMove();
+
+            if (aborted) return 0;
+
+            if (score > alpha) {
+                if (score >= beta) return beta;
+
+                alpha = score;
+
+                pvTable[ply][0] = move;
+                System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+            }
+        }
+
+        if (inCheck && searched == 0) return -MATE + ply;
+
+        return alpha;
+    }
+
+    private void rememberCutoff(int move, int depth, int ply) {
+
+        int[] pair = killers[ply];
+
+        if (pair[0] != move) {
+            pair[1] = pair[0];
+            pair[0] = move;
+        }
+
+        int index = Bitboards.colorIndex(board.sideToMove) * 4096 + (move & 4095);
+        history[index] += depth * depth;
+
+        // Halving everything keeps the scores in range and lets recent cutoffs weigh more.
+        if (history[index] > 1 << 20) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    // Counts a node and reports whether the search has to stop; the clock is only read every 2048 nodes.
+    private boolean countNode() {
+
+        if (++nodes >= maxNodes || ((nodes & 2047) == 0 && (stopRequested || (deadline != 0 && System.nanoTime() - deadline > 0)))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    // Whether the moves made since the root are exactly the start of the previous principal variation.
+    private boolean followsPreviousPv(int ply) {
+
+        for (int i = 0; i < ply; i++) {
+            if (board.moveAt(ply - i) != previousPv[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+}
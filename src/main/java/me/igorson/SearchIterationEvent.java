@@ -0,0 +1,25 @@
+package me.igorson;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One completed iterative deepening iteration; the event duration is the time the iteration took.
+@Name("me.igorson.SearchIteration")
+@Label("Search Iteration")
+@Category({"FinalChess", "Search"})
+final class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Score")
+    int score;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Best Move")
+    String bestMove;
+}
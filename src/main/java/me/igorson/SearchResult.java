@@ -0,0 +1,52 @@
+package me.igorson;
+
+final class SearchResult {
+
+    final int bestMove;
+    final int score;
+    final int depth;
+    final long nodes;
+    final long elapsedNanos;
+    final int[] principalVariation;
+
+    SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.principalVariation = principalVariation;
+    }
+
+    long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    boolean isMate() {
+        return Math.abs(score) > Search.MATE - Game.MAX_PLY;
+    }
+
+    // Moves until mate, negative when the side to move is getting mated.
+    int mateIn() {
+        return score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2;
+    }
+
+    // Formatted like a UCI info line, e.g. "depth 6 score cp 35 nodes 81234 nps 1520000 time 53 pv e2e4 e7e5".
+    @Override
+    public String toString() {
+
+        StringBuilder result = new StringBuilder()
+                .append("depth ").append(depth)
+                .append(" score ").append(isMate() ? "mate " + mateIn() : "cp " + score)
+                .append(" nodes ").append(nodes)
+                .append(" nps ").append(nodesPerSecond())
+                .append(" time ").append(elapsedNanos / 1_000_000)
+                .append(" pv");
+
+        for (int move : principalVariation) {
+            result.append(' ').append(Move.toUci(move));
+        }
+
+        return result.toString();
+    }
+}
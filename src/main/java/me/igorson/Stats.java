@@ -0,0 +1,76 @@
+package me.igorson;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms of the hot paths. Hooks are compiled in only when -Dfinalchess.stats=true is
+// given: AVAILABLE is a static final the JIT folds, so without the property every hook, and the read of enabled
+// behind it, is removed from the compiled code. With it, enabled pauses and resumes collection at run time, also
+// through the EngineStats MBean.
+final class Stats {
+
+    static final boolean AVAILABLE = Boolean.getBoolean("finalchess.stats");
+
+    static volatile boolean enabled = AVAILABLE;
+
+    // One call in SAMPLE_MASK + 1 of make, undo, move generation and check tests is timed, per board, so that
+    // System.nanoTime does not cost more than the work it measures.
+    static final int SAMPLE_MASK = 63;
+
+    static final LongAdder makeMoves = new LongAdder();
+    static final LongAdder undoMoves = new LongAdder();
+    static final LongAdder legalMoveGenerations = new LongAdder();
+    static final LongAdder pseudoLegalMoveGenerations = new LongAdder();
+    static final LongAdder searchNodes = new LongAdder();
+    static final LongAdder perftNodes = new LongAdder();
+
+    // Summed over all transposition tables; a collision is an occupied slot holding another position.
+    static final LongAdder tableProbes = new LongAdder();
+    static final LongAdder tableHits = new LongAdder();
+    static final LongAdder tableCollisions = new LongAdder();
+    static final LongAdder tableStores = new LongAdder();
+
+    // Nanoseconds per sampled call of the Board and MoveGenerator paths used by search and perft.
+    static final Histogram makeMoveTimes = new Histogram();
+    static final Histogram undoMoveTimes = new Histogram();
+    static final Histogram legalGenerationTimes = new Histogram();
+    static final Histogram pseudoLegalGenerationTimes = new Histogram();
+    static final Histogram checkTestTimes = new Histogram();
+
+    // Nanoseconds per call of the Game methods used by the console game and the GUI.
+    static final Histogram possibleMoves = new Histogram();
+    static final Histogram legalMoves = new Histogram();
+    static final Histogram kingChecks = new Histogram();
+
+    private Stats() {
+    }
+
+    static boolean on() {
+        return AVAILABLE && enabled;
+    }
+
+    // System.nanoTime when this call on the board is one to time, otherwise 0.
+    static long sample(Board board) {
+        return (++board.statsCalls & SAMPLE_MASK) == 0 ? System.nanoTime() : 0;
+    }
+
+    static void reset() {
+        makeMoves.reset();
+        undoMoves.reset();
+        legalMoveGenerations.reset();
+        pseudoLegalMoveGenerations.reset();
+        searchNodes.reset();
+        perftNodes.reset();
+        tableProbes.reset();
+        tableHits.reset();
+        tableCollisions.reset();
+        tableStores.reset();
+        makeMoveTimes.reset();
+        undoMoveTimes.reset();
+        legalGenerationTimes.reset();
+        pseudoLegalGenerationTimes.reset();
+        checkTestTimes.reset();
+        possibleMoves.reset();
+        legalMoves.reset();
+        kingChecks.reset();
+    }
+}
@@ -0,0 +1,187 @@
+package me.igorson;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Engine against engine self-play. Every game has its own Game, search and transposition table; games are played on
+// virtual threads when the runtime has them and on a fixed pool of platform threads otherwise.
+final class Tournament {
+
+    private final int games;
+    private final int concurrency;
+
+    private long firstEngineNodes = 10_000;
+    private long secondEngineNodes = 10_000;
+    private int randomPlies = 8;
+    private int maxPlies = 400;
+    private int hashMb = 1;
+    private long seed = 1;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder firstEngineWins = new LongAdder();
+    private final LongAdder secondEngineWins = new LongAdder();
+    private final LongAdder whiteWins = new LongAdder();
+    private final LongAdder blackWins = new LongAdder();
+    private final LongAdder checkmates = new LongAdder();
+    private final LongAdder stalemates = new LongAdder();
+    private final LongAdder repetitions = new LongAdder();
+    private final LongAdder fiftyMoveDraws = new LongAdder();
+    private final LongAdder adjudicatedDraws = new LongAdder();
+    private final LongAdder plies = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+
+    private long start;
+
+    // At most concurrency games are in progress at once, which also bounds the memory used by their tables.
+    Tournament(int games, int concurrency) {
+        this.games = games;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    // Node budget per move of the two engines; they alternate colors from game to game.
+    void setEngines(long firstEngineNodes, long secondEngineNodes) {
+        this.firstEngineNodes = firstEngineNodes;
+        this.secondEngineNodes = secondEngineNodes;
+    }
+
+    // Random legal moves played before the engines take over. Both games of a pair start from the same opening.
+    void setRandomPlies(int randomPlies) {
+        this.randomPlies = randomPlies;
+    }
+
+    // Games still running after this many plies are scored as draws.
+    void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    void setHashMb(int hashMb) {
+        this.hashMb = hashMb;
+    }
+
+    void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    TournamentResult run() throws InterruptedException {
+
+        start = System.nanoTime();
+
+        ExecutorService executor = newExecutor(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(this::playGames);
+        }
+
+        executor.shutdown();
+
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        return result();
+    }
+
+    // The counts so far; can be called from another thread while the tournament runs.
+    TournamentResult result() {
+        return new TournamentResult(finished.sum(), firstEngineWins.sum(), secondEngineWins.sum(), whiteWins.sum(),
+                blackWins.sum(), checkmates.sum(), stalemates.sum(), repetitions.sum(), fiftyMoveDraws.sum(),
+                adjudicatedDraws.sum(), plies.sum(), nodes.sum(), System.nanoTime() - start);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor is looked up at run time so the code still compiles for Java 18.
+    private static ExecutorService newExecutor(int concurrency) {
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.min(concurrency, Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    // Each worker keeps one table and takes games until none are left.
+    private void playGames() {
+
+        TranspositionTable table = new TranspositionTable(hashMb);
+
+        for (int index = nextGame.getAndIncrement(); index < games; index = nextGame.getAndIncrement()) {
+            table.clear();
+            playGame(index, table);
+        }
+    }
+
+    private void playGame(int index, TranspositionTable table) {
+
+        Game game = Game.headless(Fen.START);
+        Board board = game.getBoard();
+        Search search = new Search(board, table);
+
+        boolean firstIsWhite = (index & 1) == 0;
+        SplittableRandom random = new SplittableRandom(seed + index / 2);
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int reason = Game.ONGOING;
+        int ply = 0;
+
+        for (; (reason = game.gameOverReason()) == Game.ONGOING && ply < maxPlies; ply++) {
+
+            int count = game.generateLegalMoves(moves);
+            int move;
+
+            if (ply < randomPlies) {
+                move = moves[random.nextInt(count)];
+            } else {
+                boolean first = (game.currentMove == Piece.White) == firstIsWhite;
+
+                table.newSearch();
+                SearchResult result = search.search(Game.MAX_PLY, first ? firstEngineNodes : secondEngineNodes);
+
+                nodes.add(search.getNodes());
+                move = result == null || result.bestMove == 0 ? moves[0] : result.bestMove;
+            }
+
+            game.makeMove(move);
+        }
+
+        switch (reason) {
+            case Game.CHECKMATE -> checkmates.increment();
+            case Game.STALEMATE -> stalemates.increment();
+            case Game.THREEFOLD_REPETITION -> repetitions.increment();
+            case Game.FIFTY_MOVE_RULE -> fiftyMoveDraws.increment();
+            default -> adjudicatedDraws.increment();
+        }
+
+        if (reason == Game.CHECKMATE) {
+            boolean whiteWon = game.winner == Piece.White;
+
+            (whiteWon ? whiteWins : blackWins).increment();
+            (whiteWon == firstIsWhite ? firstEngineWins : secondEngineWins).increment();
+        }
+
+        plies.add(ply);
+        finished.increment();
+    }
+
+    // Arguments: games, concurrency, nodes per move of the first and of the second engine.
+    public static void main(String[] args) throws InterruptedException {
+
+        EngineStats.register();
+
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Tournament tournament = new Tournament(games, concurrency);
+
+        if (args.length > 2) {
+            long first = Long.parseLong(args[2]);
+            tournament.setEngines(first, args.length > 3 ? Long.parseLong(args[3]) : first);
+        }
+
+        TournamentResult result = tournament.run();
+
+        System.out.println(result);
+    }
+}
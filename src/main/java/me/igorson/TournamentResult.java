@@ -0,0 +1,66 @@
+package me.igorson;
+
+final class TournamentResult {
+
+    final long games;
+    final long firstEngineWins;
+    final long secondEngineWins;
+    final long whiteWins;
+    final long blackWins;
+    final long checkmates;
+    final long stalemates;
+    final long repetitions;
+    final long fiftyMoveDraws;
+    final long adjudicatedDraws;
+    final long plies;
+    final long nodes;
+    final long elapsedNanos;
+
+    TournamentResult(long games, long firstEngineWins, long secondEngineWins, long whiteWins, long blackWins,
+                     long checkmates, long stalemates, long repetitions, long fiftyMoveDraws, long adjudicatedDraws,
+                     long plies, long nodes, long elapsedNanos) {
+        this.games = games;
+        this.firstEngineWins = firstEngineWins;
+        this.secondEngineWins = secondEngineWins;
+        this.whiteWins = whiteWins;
+        this.blackWins = blackWins;
+        this.checkmates = checkmates;
+        this.stalemates = stalemates;
+        this.repetitions = repetitions;
+        this.fiftyMoveDraws = fiftyMoveDraws;
+        this.adjudicatedDraws = adjudicatedDraws;
+        this.plies = plies;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    long draws() {
+        return games - whiteWins - blackWins;
+    }
+
+    double averagePlies() {
+        return games == 0 ? 0 : (double) plies / games;
+    }
+
+    double gamesPerMinute() {
+        return elapsedNanos == 0 ? 0 : games * 60e9 / elapsedNanos;
+    }
+
+    long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (long) (nodes * 1e9 / elapsedNanos);
+    }
+
+    // Score of the first engine, wins plus half the draws, as a fraction of the games.
+    double firstEngineScore() {
+        return games == 0 ? 0 : (firstEngineWins + draws() / 2.0) / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games %d +%d -%d =%d (score %.3f) white %d black %d | mate %d stalemate %d repetition %d"
+                        + " fifty %d adjudicated %d | avg plies %.1f | %.0f games/min | nps %d | time %d",
+                games, firstEngineWins, secondEngineWins, draws(), firstEngineScore(), whiteWins, blackWins,
+                checkmates, stalemates, repetitions, fiftyMoveDraws, adjudicatedDraws, averagePlies(),
+                gamesPerMinute(), nodesPerSecond(), elapsedNanos / 1_000_000);
+    }
+}
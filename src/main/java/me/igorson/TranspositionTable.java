@@ -0,0 +1,129 @@
+package me.igorson;
+
+import java.util.Arrays;
+
+final class TranspositionTable {
+
+    static final int EXACT = 1;
+    static final int LOWER_BOUND = 2;
+    static final int UPPER_BOUND = 3;
+
+    // Depth has 7 bits; Search can iterate to Game.MAX_PLY, so deeper results are stored as this depth.
+    static final int MAX_DEPTH = 0x7F;
+
+    // Each entry is two longs: the key XOR the data, then the data itself. Search threads read and write
+    // without locking; a torn or overwritten entry no longer verifies against the key and is treated as a miss.
+    private long[] entries;
+    private int mask;
+
+    private volatile int generation;
+
+    TranspositionTable(int sizeMb) {
+        resize(sizeMb);
+    }
+
+    // Uses the largest power of two number of 16-byte entries that fits in sizeMb and clears the table.
+    void resize(int sizeMb) {
+
+        long count = Math.max(1L, (long) sizeMb * 1024 * 1024 / 16);
+        int capacity = Integer.highestOneBit((int) Math.min(count, 1 << 29));
+
+        entries = new long[capacity * 2];
+        mask = capacity - 1;
+    }
+
+    void clear() {
+        Arrays.fill(entries, 0);
+        generation = 0;
+    }
+
+    // Called once per search so entries from older searches are replaced first.
+    void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    // The packed data stored for this key, or 0 when there is none.
+    long probe(long key) {
+
+        if (Stats.on()) Stats.tableProbes.increment();
+
+        int index = ((int) key & mask) << 1;
+        long data = entries[index + 1];
+
+        if (data == 0) return 0;
+
+        if ((entries[index] ^ data) != key) {
+            if (Stats.on()) Stats.tableCollisions.increment();
+            return 0;
+        }
+
+        if (Stats.on()) Stats.tableHits.increment();
+        return data;
+    }
+
+    // Scores are stored relative to the node, so mate scores are adjusted by the distance from the root.
+    void store(long key, int move, int score, int depth, int bound, int ply) {
+
+        assert depth >= 0 : "Negative depth " + depth;
+        depth = Math.min(depth, MAX_DEPTH);
+
+        int index = ((int) key & mask) << 1;
+        long old = entries[index + 1];
+
+        if (old != 0 && (entries[index] ^ old) == key && generation(old) == generation && depth < depth(old) && bound != EXACT) {
+            return;
+        }
+
+        if (score > Search.MATE - Game.MAX_PLY) score += ply;
+        if (score < -Search.MATE + Game.MAX_PLY) score -= ply;
+
+        long data = (move & 0x7FFFFL)
+                | (long) (score & 0xFFFF) << 19
+                | (long) depth << 35
+                | (long) bound << 42
+                | (long) generation << 44;
+
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+
+        if (Stats.on()) Stats.tableStores.increment();
+    }
+
+    static int move(long data) {
+        return (int) data & 0x7FFFF;
+    }
+
+    static int score(long data, int ply) {
+
+        int score = (short) (data >>> 19);
+
+        if (score > Search.MATE - Game.MAX_PLY) return score - ply;
+        if (score < -Search.MATE + Game.MAX_PLY) return score + ply;
+        return score;
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 35) & MAX_DEPTH;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 42) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 44) & 0xFF;
+    }
+
+    // Permille of the first thousand slots written during the current search, as reported by UCI hashfull.
+    int hashfull() {
+
+        int used = 0;
+        int sample = Math.min(1000, mask + 1);
+
+        for (int i = 0; i < sample; i++) {
+            long data = entries[i * 2 + 1];
+            if (data != 0 && generation(data) == generation) used++;
+        }
+        return used * 1000 / sample;
+    }
+}
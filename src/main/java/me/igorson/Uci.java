@@ -0,0 +1,310 @@
+package me.igorson;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Universal Chess Interface front end. Commands are read on the calling thread and searches run on a separate
+// thread, so stop and isready are answered while a search is running.
+final class Uci {
+
+    private static final int DEFAULT_HASH_MB = 64;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    private final TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+    private int threads = 1;
+
+    private PolyglotBook book;
+    private final SplittableRandom bookRandom = new SplittableRandom();
+
+    private Game game = Game.headless(Fen.START);
+
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile LazySmpSearch search;
+    private volatile CountDownLatch stopped = new CountDownLatch(0);
+    private Future<?> running = CompletableFuture.completedFuture(null);
+
+    Uci(InputStream in, PrintStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in));
+        this.out = out;
+    }
+
+    // Returns on quit or at the end of the input.
+    void run() throws IOException {
+
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+
+            String[] tokens = line.trim().split("\\s+");
+
+            switch (tokens[0]) {
+                case "uci" -> {
+                    send("id name FinalChess");
+                    send("id author Igorson");
+                    send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max 4096");
+                    send("option name Threads type spin default 1 min 1 max 256");
+                    send("option name BookFile type string default <empty>");
+                    send("uciok");
+                }
+                case "isready" -> send("readyok");
+                case "ucinewgame" -> {
+                    finishSearch();
+                    table.clear();
+                    game = Game.headless(Fen.START);
+                }
+                case "setoption" -> {
+                    finishSearch();
+                    setOption(tokens);
+                }
+                case "position" -> {
+                    finishSearch();
+                    position(tokens);
+                }
+                case "go" -> {
+                    finishSearch();
+                    go(tokens);
+                }
+                case "stop" -> stop();
+                case "quit" -> {
+                    finishSearch();
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+
+        finishSearch();
+    }
+
+    // setoption name <name> value <value>
+    private void setOption(String[] tokens) {
+
+        if (tokens.length < 5 || !tokens[1].equals("name") || !tokens[3].equals("value")) return;
+
+        if (tokens[2].equalsIgnoreCase("bookfile")) {
+            setBook(String.join(" ", Arrays.copyOfRange(tokens, 4, tokens.length)));
+            return;
+        }
+
+        try {
+            int value = Integer.parseInt(tokens[4]);
+
+            switch (tokens[2].toLowerCase()) {
+                case "hash" -> table.resize(Math.max(1, Math.min(value, 4096)));
+                case "threads" -> threads = Math.max(1, Math.min(value, 256));
+                default -> send("info string unknown option " + tokens[2]);
+            }
+        } catch (NumberFormatException e) {
+            send("info string invalid value " + tokens[4]);
+        }
+    }
+
+    // "<empty>" closes the current book.
+    private void setBook(String path) {
+
+        try {
+            if (book != null) book.close();
+            book = null;
+
+            if (!path.equals("<empty>")) {
+                book = PolyglotBook.open(Path.of(path));
+                send("info string book " + path + " with " + book.size() + " entries");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            send("info string cannot use book: " + e.getMessage());
+        }
+    }
+
+    // position [startpos | fen <fields>] [moves <move>...]
+    private void position(String[] tokens) {
+
+        int i = 1;
+        String fen = Fen.START;
+
+        if (i < tokens.length && tokens[i].equals("startpos")) {
+            i++;
+        } else if (i < tokens.length && tokens[i].equals("fen")) {
+            StringBuilder fields = new StringBuilder();
+
+            for (i++; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                fields.append(tokens[i]).append(' ');
+            }
+            fen = fields.toString();
+        }
+
+        Game next;
+
+        try {
+            next = Game.headless(fen);
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+
+        if (i < tokens.length && tokens[i].equals("moves")) {
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+            for (i++; i < tokens.length; i++) {
+
+                int count = next.generateLegalMoves(moves);
+                int move = 0;
+
+                for (int j = 0; j < count && move == 0; j++) {
+                    if (Move.toUci(moves[j]).equals(tokens[i])) move = moves[j];
+                }
+
+                if (move == 0) {
+                    send("info string illegal move " + tokens[i]);
+                    break;
+                }
+                next.makeMove(move);
+            }
+        }
+
+        game = next;
+    }
+
+    // go [depth n] [nodes n] [movetime ms] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo n] [infinite]
+    private void go(String[] tokens) {
+
+        int depth = Game.MAX_PLY;
+        long nodes = 0, moveTime = 0, time = -1, increment = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+
+        boolean white = game.currentMove == Piece.White;
+
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Math.min(Integer.parseInt(tokens[++i]), Game.MAX_PLY);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                    case "wtime", "btime" -> {
+                        long value = Long.parseLong(tokens[++i]);
+                        if (tokens[i - 1].charAt(0) == (white ? 'w' : 'b')) time = value;
+                    }
+                    case "winc", "binc" -> {
+                        long value = Long.parseLong(tokens[++i]);
+                        if (tokens[i - 1].charAt(0) == (white ? 'w' : 'b')) increment = value;
+                    }
+                    case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                    case "infinite", "ponder" -> infinite = true;
+                    default -> {
+                    }
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string invalid go command");
+            return;
+        }
+
+        long millis = moveTime;
+
+        // Spends an even share of the remaining time, keeping a little back for the communication delay.
+        if (millis == 0 && time >= 0) {
+            long share = time / (movesToGo > 0 ? movesToGo : 30) + increment * 3 / 4;
+            millis = Math.max(1, Math.min(share, time - 50));
+        }
+
+        if (infinite) millis = 0;
+
+        // A book move is played at once, except in analysis where the search is what was asked for.
+        int bookMove = book == null || infinite ? 0 : book.pick(game.getBoard(), bookRandom);
+
+        if (bookMove != 0) {
+            send("info string book move");
+            send("bestmove " + Move.toUci(bookMove));
+            return;
+        }
+
+        LazySmpSearch next = new LazySmpSearch(table, threads);
+        next.setIterationListener(result -> send("info hashfull " + table.hashfull() + " " + result));
+
+        Board board = game.getBoard();
+        CountDownLatch latch = new CountDownLatch(infinite ? 1 : 0);
+
+        int searchDepth = depth;
+        long searchNodes = nodes;
+        long searchMillis = millis;
+
+        search = next;
+        stopped = latch;
+
+        running = searchThread.submit(() -> {
+
+            SearchResult result = null;
+
+            // A GUI waits for bestmove, so it is sent even when the search fails.
+            try {
+                result = next.search(board, searchDepth, searchNodes, searchMillis);
+
+                // In infinite mode the best move is only sent after stop.
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                send("info string search failed: " + e);
+            } finally {
+                if (result == null || result.bestMove == 0) {
+                    send("bestmove 0000");
+                } else if (result.principalVariation.length > 1) {
+                    send("bestmove " + Move.toUci(result.bestMove) + " ponder " + Move.toUci(result.principalVariation[1]));
+                } else {
+                    send("bestmove " + Move.toUci(result.bestMove));
+                }
+            }
+        });
+    }
+
+    private void stop() {
+
+        LazySmpSearch current = search;
+
+        if (current != null) current.stop();
+
+        stopped.countDown();
+    }
+
+    // Stops the running search, if any, and waits until it has sent its best move.
+    private void finishSearch() {
+
+        stop();
+
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            send("info string search failed: " + e.getCause());
+        }
+
+        running = CompletableFuture.completedFuture(null);
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
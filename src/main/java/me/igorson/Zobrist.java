@@ -0,0 +1,31 @@
+package me.igorson;
+
+import java.util.SplittableRandom;
+
+final class Zobrist {
+
+    // Indexed by piece code * 64 + square, like Board.pieces.
+    static final long[] PIECES = new long[(Piece.Black + Piece.King + 1) * 64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+    static final long SIDE;
+
+    static {
+        // A fixed seed keeps keys identical between runs, so stored keys stay comparable.
+        SplittableRandom random = new SplittableRandom(0x5EEDC4E55L);
+
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}